@@ -1,6 +1,6 @@
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class ArrayUtils {
 
@@ -11,18 +11,75 @@ public class ArrayUtils {
      * Count the number of unique array elements
      * 
      * @param nums array
-     * @return number of elements in the set created using nums array
+     * @return number of distinct elements in nums
+     * 
+     *         Note : 1. A bitset over [min, max] is used when the value range is
+     *         small compared to the array, else a primitive IntHashSet
      * 
      *         Time complexity : O(n) Space complexity : O(n)
      */
     public static int getNumOfDistinctEle(int[] nums) {
-        Set<Integer> set = new HashSet<>();
+        if (nums.length <= 1) {
+            return nums.length;
+        }
+        int min = nums[0];
+        int max = nums[0];
+        for (int i = 1; i < nums.length; i++) {
+            min = Math.min(min, nums[i]);
+            max = Math.max(max, nums[i]);
+        }
+        // A bitset costs 1 bit per value in range, a hash set about 64 bits per
+        // element
+        long range = (long) max - min + 1;
+        if (range <= 64L * nums.length) {
+            return getNumOfDistinctEleInRange(nums, min, max);
+        }
+        IntHashSet set = new IntHashSet(nums.length);
         for (int i = 0; i < nums.length; i++) {
             set.add(nums[i]);
         }
         return set.size();
     }
 
+    /**
+     * Count the number of unique array elements using a bitset
+     * 
+     * @param nums array with all elements in [min, max]
+     * @param min  smallest element
+     * @param max  largest element
+     * @return number of distinct elements in nums
+     * 
+     *         Time complexity : O(n + (max - min)) Space complexity : O(max - min)
+     */
+    public static int getNumOfDistinctEleInRange(int[] nums, int min, int max) {
+        long range = (long) max - min + 1;
+        long[] words = new long[(int) ((range + 63) >>> 6)];
+        for (int i = 0; i < nums.length; i++) {
+            // Offset from min as unsigned, so it fits even for the full int range
+            long offset = (nums[i] - min) & 0xFFFFFFFFL;
+            words[(int) (offset >>> 6)] |= 1L << offset;
+        }
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Estimate the number of unique array elements with a HyperLogLog sketch
+     * 
+     * @param nums array
+     * @return approximate number of distinct elements (about 0.8% error)
+     * 
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public static long getApproxNumOfDistinctEle(int[] nums) {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(nums, 0, nums.length);
+        return sketch.estimate();
+    }
+
     /**
      * Shift a given element to the last position
      * 
@@ -57,27 +114,285 @@ public class ArrayUtils {
         nums[j] = temp;
     }
 
+    // Smallest array sorted by radixSort instead of Arrays.sort
+    static final int RADIX_SORT_MIN_SIZE = 1 << 12;
+    // Smallest array sorted by Arrays.parallelSort when there are several cores
+    static final int PARALLEL_SORT_MIN_SIZE = 1 << 16;
+    // Bits of a radix sort digit, the counts of a digit fit in L1
+    static final int RADIX_BITS = 11;
+
     /**
      * Remove duplicates in array. Store the resultant array in the input array
      * 
      * @param nums array
-     * @return num of elements in the array after removing duplicates
+     * @return num of elements in the array after removing duplicates, which are
+     *         in nums[0, count) in increasing order
+     * 
+     *         Time complexity : O(nlogn), O(n) by range or radix Space complexity
+     *         : O(n)
      * 
-     *         Time complexity : O(nlogn) Space complexity : O(1)
+     *         Note : 1. The strategy depends on the size and the value range :
+     *         a bitset over [min, max] when the range is small compared to the
+     *         array, no sort needed, else Arrays.parallelSort for large arrays
+     *         with several cores, radixSort for large arrays on one core and
+     *         Arrays.sort for small ones. 2. Only primitive arrays are
+     *         allocated, at most the bitset or one copy of nums.
      */
-    public int removeDuplicates(int[] nums) {
+    public static int removeDuplicates(int[] nums) {
+        int n = nums.length;
+        if (n <= 1) {
+            return n;
+        }
+        int min = nums[0];
+        int max = nums[0];
+        for (int i = 1; i < n; i++) {
+            min = Math.min(min, nums[i]);
+            max = Math.max(max, nums[i]);
+        }
+        // Same trade off as getNumOfDistinctEle
+        long range = (long) max - min + 1;
+        if (range <= 64L * n) {
+            return removeDuplicatesInRange(nums, min, max);
+        }
+        if (n >= PARALLEL_SORT_MIN_SIZE && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            Arrays.parallelSort(nums);
+        } else if (n >= RADIX_SORT_MIN_SIZE) {
+            radixSort(nums, min, max);
+        } else {
+            Arrays.sort(nums);
+        }
+        return removeAdjacentDuplicates(nums, n);
+    }
+
+    /**
+     * Remove duplicates in array using a bitset over the value range. Store
+     * the distinct elements in increasing order in the input array
+     * 
+     * @param nums array with all elements in [min, max]
+     * @param min  smallest element
+     * @param max  largest element
+     * @return num of distinct elements
+     * 
+     *         Time complexity : O(n + (max - min)) Space complexity : O(max - min)
+     */
+    static int removeDuplicatesInRange(int[] nums, int min, int max) {
+        long range = (long) max - min + 1;
+        long[] words = new long[(int) ((range + 63) >>> 6)];
+        for (int i = 0; i < nums.length; i++) {
+            long offset = (nums[i] - min) & 0xFFFFFFFFL;
+            words[(int) (offset >>> 6)] |= 1L << offset;
+        }
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                nums[count++] = min + (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove adjacent duplicates in the first length elements of the array
+     * 
+     * @param nums   array
+     * @param length number of elements to consider
+     * @return number of elements left
+     * 
+     *         Time complexity : O(length) Space complexity : O(1)
+     * 
+     *         Note : 1. Every element is written at the write pointer, which
+     *         only moves past it if it differs from the last one kept : there is
+     *         no branch on the data to mispredict
+     */
+    static int removeAdjacentDuplicates(int[] nums, int length) {
+        if (length <= 1) {
+            return length;
+        }
+        int last = nums[0];
+        int w = 1;
+        for (int i = 1; i < length; i++) {
+            int cur = nums[i];
+            nums[w] = cur;
+            w += cur != last ? 1 : 0;
+            last = cur;
+        }
+        return w;
+    }
+
+    /**
+     * Remove duplicates in array keeping the first occurrence of each element
+     * in its original order. Store the resultant array in the input array
+     * 
+     * @param nums array
+     * @return num of distinct elements, in nums[0, count)
+     * 
+     *         Time complexity : O(n) Space complexity : O(n)
+     * 
+     *         Note : 1. Seen elements are tracked in a bitset over [min, max]
+     *         when the range is small compared to the array, else in an
+     *         IntHashSet. 2. The write pointer moves without a branch, as in
+     *         removeAdjacentDuplicates.
+     */
+    public static int removeDuplicatesKeepOrder(int[] nums) {
+        int n = nums.length;
+        if (n <= 1) {
+            return n;
+        }
+        int min = nums[0];
+        int max = nums[0];
+        for (int i = 1; i < n; i++) {
+            min = Math.min(min, nums[i]);
+            max = Math.max(max, nums[i]);
+        }
+        long range = (long) max - min + 1;
+        int w = 0;
+        if (range <= 64L * n) {
+            long[] words = new long[(int) ((range + 63) >>> 6)];
+            for (int i = 0; i < n; i++) {
+                int cur = nums[i];
+                long offset = (cur - min) & 0xFFFFFFFFL;
+                int index = (int) (offset >>> 6);
+                long word = words[index];
+                long bit = 1L << offset;
+                words[index] = word | bit;
+                nums[w] = cur;
+                w += (word & bit) == 0 ? 1 : 0;
+            }
+            return w;
+        }
+        IntHashSet seen = new IntHashSet(n);
+        for (int i = 0; i < n; i++) {
+            int cur = nums[i];
+            nums[w] = cur;
+            w += seen.add(cur) ? 1 : 0;
+        }
+        return w;
+    }
+
+    /**
+     * Sort an array with a least significant digit radix sort
+     * 
+     * @param nums array
+     * 
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static void radixSort(int[] nums) {
         if (nums.length <= 1) {
-            return nums.length;
+            return;
+        }
+        int min = nums[0];
+        int max = nums[0];
+        for (int i = 1; i < nums.length; i++) {
+            min = Math.min(min, nums[i]);
+            max = Math.max(max, nums[i]);
+        }
+        radixSort(nums, min, max);
+    }
+
+    /**
+     * Sort an array with a least significant digit radix sort on the offsets
+     * from min, so that a small range needs fewer passes
+     * 
+     * @param nums array with all elements in [min, max]
+     * @param min  smallest element
+     * @param max  largest element
+     * 
+     *         Time complexity : O(n * passes), at most 3 passes of RADIX_BITS
+     *         bits Space complexity : O(n)
+     */
+    static void radixSort(int[] nums, int min, int max) {
+        int n = nums.length;
+        // Offsets from min are unsigned and fit in bits bits
+        int bits = 32 - Integer.numberOfLeadingZeros(max - min);
+        int passes = (bits + RADIX_BITS - 1) / RADIX_BITS;
+        if (passes == 0) {
+            return;
+        }
+        int radix = 1 << RADIX_BITS;
+        int mask = radix - 1;
+        // 1. Count the digits of every pass in a single read
+        int[][] offsets = new int[passes][radix];
+        for (int i = 0; i < n; i++) {
+            int key = nums[i] - min;
+            for (int p = 0; p < passes; p++) {
+                offsets[p][(key >>> (p * RADIX_BITS)) & mask]++;
+            }
+        }
+        for (int[] counts : offsets) {
+            int sum = 0;
+            for (int d = 0; d < radix; d++) {
+                int count = counts[d];
+                counts[d] = sum;
+                sum += count;
+            }
+        }
+        // 2. Stable scatter by each digit, from the lowest, between two buffers
+        int[] src = nums;
+        int[] dst = new int[n];
+        for (int p = 0; p < passes; p++) {
+            int[] next = offsets[p];
+            int shift = p * RADIX_BITS;
+            for (int i = 0; i < n; i++) {
+                int val = src[i];
+                dst[next[((val - min) >>> shift) & mask]++] = val;
+            }
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != nums) {
+            System.arraycopy(src, 0, nums, 0, n);
         }
-        Arrays.sort(nums);
-        int uPtr = 0;
-        for (int ptr = 1; ptr < nums.length; ptr++) {
-            if (nums[ptr] != nums[uPtr]) {
-                uPtr++;
-                swap(nums, ptr, uPtr);
+    }
+
+    /**
+     * Given k sorted arrays merge them into a sorted array
+     * 
+     * @param arrays k sorted arrays with n elements in total
+     * @return sorted array with all elements
+     * 
+     *         Time complexity : O(nlogk) Space complexity : O(n + k)
+     */
+    public static int[] mergeKSortedArrays(int[][] arrays) {
+        int k = arrays.length;
+        long total = 0;
+        for (int[] array : arrays) {
+            total += array.length;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many elements : " + total);
+        }
+        int[] result = new int[(int) total];
+        if (k == 0) {
+            return result;
+        }
+
+        int[] pos = new int[k];
+        LoserTree tree = new LoserTree(k);
+        for (int i = 0; i < k; i++) {
+            if (arrays[i].length == 0) {
+                tree.exhaust(i);
+            } else {
+                tree.set(i, arrays[i][0]);
+            }
+        }
+        tree.build();
+
+        int winner;
+        int r = 0;
+        while ((winner = tree.winner()) != -1) {
+            int[] array = arrays[winner];
+            result[r++] = array[pos[winner]++];
+            if (pos[winner] == array.length) {
+                tree.exhaust(winner);
+            } else {
+                tree.set(winner, array[pos[winner]]);
             }
+            tree.replay(winner);
         }
-        return uPtr + 1;
+        return result;
     }
 
     /**
@@ -105,6 +420,518 @@ public class ArrayUtils {
         return -1;
     }
 
+    // Smallest array for which lowerBound samples the values to decide on
+    // interpolation, binary search is as good below
+    static final int INTERPOLATION_MIN_SIZE = 1 << 10;
+    // Largest array, in bytes, for which lowerBound uses interpolation. Its
+    // probes land anywhere and each one misses the cache and the TLB once the
+    // array is out of cache, where the top levels of a binary search stay hot
+    // and it is faster.
+    static final long INTERPOLATION_MAX_BYTES = 8L << 20;
+    // Range below which interpolation search finishes with a binary search
+    static final int INTERPOLATION_CUTOFF = 16;
+
+    /**
+     * Find the first element >= target in a sorted array
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller. Also the index where target would be inserted.
+     *
+     *         Time complexity : O(logn), O(loglogn) on uniform values Space
+     *         complexity : O(1)
+     *
+     *         Note : 1. Arrays of INTERPOLATION_MIN_SIZE elements up to
+     *         INTERPOLATION_MAX_BYTES are sampled at 1/4, 1/2 and 3/4 : if the
+     *         values there are close to a straight line from the first to the
+     *         last element, interpolation search is used, else binary search
+     */
+    public static int lowerBound(int[] nums, int target) {
+        int n = nums.length;
+        if (n >= INTERPOLATION_MIN_SIZE && 4L * n <= INTERPOLATION_MAX_BYTES && isNearlyUniform(nums)) {
+            return interpolationLowerBound(nums, target);
+        }
+        return binaryLowerBound(nums, 0, n, target);
+    }
+
+    /**
+     * Find the first element > target in a sorted array
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element > target, nums.length if there is none
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public static int upperBound(int[] nums, int target) {
+        return target == Integer.MAX_VALUE ? nums.length : lowerBound(nums, target + 1);
+    }
+
+    /**
+     * Find the range of elements equal to target in a sorted array
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return {from, to} such that the elements equal to target are nums[from,
+     *         to), empty at the insertion point if target is absent
+     *
+     *         Time complexity : O(logn + log(count of target)) Space complexity :
+     *         O(1)
+     */
+    public static int[] equalRange(int[] nums, int target) {
+        int from = lowerBound(nums, target);
+        int to = target == Integer.MAX_VALUE ? nums.length : gallopLowerBound(nums, from, target + 1);
+        return new int[] { from, to };
+    }
+
+    /**
+     * Find the first element >= target in a sorted array, starting from a hint
+     * of where it is
+     *
+     * @param nums   array in non decreasing order
+     * @param hint   index expected to be close to the answer
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller
+     *
+     *         Time complexity : O(logd) where d is the distance from hint to the
+     *         answer Space complexity : O(1)
+     */
+    public static int gallopLowerBound(int[] nums, int hint, int target) {
+        int n = nums.length;
+        if (n == 0) {
+            return 0;
+        }
+        hint = Math.max(0, Math.min(hint, n - 1));
+        // Step sizes double, known counts the elements past the hint already
+        // known to be on the side of the hint
+        int known = 0;
+        int bound = 1;
+        if (nums[hint] < target) {
+            int lo = hint + 1;
+            int limit = n - lo;
+            while (bound <= limit && nums[lo + bound - 1] < target) {
+                known = bound;
+                bound = bound > limit >>> 1 ? limit + 1 : bound << 1;
+            }
+            return binaryLowerBound(nums, lo + known, lo + Math.min(bound, limit), target);
+        }
+        while (bound <= hint && nums[hint - bound] >= target) {
+            known = bound;
+            bound = bound > hint >>> 1 ? hint + 1 : bound << 1;
+        }
+        return binaryLowerBound(nums, hint - Math.min(bound, hint), hint - known, target);
+    }
+
+    /**
+     * Find the first element >= target in a sorted array by interpolating its
+     * position from the values at the ends of the range
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller
+     *
+     *         Time complexity : O(loglogn) on uniform values, O(logn) worst case
+     *         Space complexity : O(1)
+     *
+     *         Note : 1. A probe that does not cut the range at least in half is
+     *         followed by a binary search step, which bounds the worst case. 2.
+     *         The values at the ends of the range are the previous probes, so a
+     *         step costs a single load.
+     */
+    public static int interpolationLowerBound(int[] nums, int target) {
+        int n = nums.length;
+        if (n == 0 || target <= nums[0]) {
+            return 0;
+        }
+        if (target > nums[n - 1]) {
+            return n;
+        }
+        // nums[lo] = loVal < target <= hiVal = nums[hi], the answer is in (lo,
+        // hi]. The ends are only read once, every probe becomes one of them.
+        int lo = 0;
+        int hi = n - 1;
+        int loVal = nums[0];
+        int hiVal = nums[n - 1];
+        while (hi - lo > INTERPOLATION_CUTOFF) {
+            int length = hi - lo;
+            // Doubles may round the fraction up to 1, the probe is clamped
+            double fraction = ((double) target - loVal) / ((double) hiVal - loVal);
+            int probe = Math.min(hi - 1, lo + 1 + (int) (fraction * (length - 1)));
+            int val = nums[probe];
+            if (val < target) {
+                lo = probe;
+                loVal = val;
+            } else {
+                hi = probe;
+                hiVal = val;
+            }
+            if (hi - lo > length >>> 1) {
+                int mid = (lo + hi) >>> 1;
+                val = nums[mid];
+                if (val < target) {
+                    lo = mid;
+                    loVal = val;
+                } else {
+                    hi = mid;
+                    hiVal = val;
+                }
+            }
+        }
+        return binaryLowerBound(nums, lo + 1, hi, target);
+    }
+
+    /**
+     * Check if the quartiles of a sorted array are near where a straight line
+     * from its first to its last element puts them
+     */
+    private static boolean isNearlyUniform(int[] nums) {
+        int n = nums.length;
+        double first = nums[0];
+        double span = (double) nums[n - 1] - first;
+        for (int q = 1; q <= 3; q++) {
+            double expected = first + span * q / 4;
+            if (Math.abs(nums[(int) ((long) (n - 1) * q / 4)] - expected) > span / 16) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Branchless binary search of the first element >= target in nums[from, to)
+     *
+     * @return the index, to if all are smaller
+     */
+    static int binaryLowerBound(int[] nums, int from, int to, int target) {
+        if (from >= to) {
+            return from;
+        }
+        int base = from;
+        for (int len = to - from; len > 1; len -= len >>> 1) {
+            int half = len >>> 1;
+            base = nums[base + half - 1] < target ? base + half : base;
+        }
+        return base + (nums[base] < target ? 1 : 0);
+    }
+
+    /**
+     * Find the first element >= target in a sorted array, as lowerBound(int[],
+     * int)
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller
+     *
+     *         Time complexity : O(logn), O(loglogn) on uniform values Space
+     *         complexity : O(1)
+     */
+    public static int lowerBound(long[] nums, long target) {
+        int n = nums.length;
+        if (n >= INTERPOLATION_MIN_SIZE && 8L * n <= INTERPOLATION_MAX_BYTES && isNearlyUniform(nums)) {
+            return interpolationLowerBound(nums, target);
+        }
+        return binaryLowerBound(nums, 0, n, target);
+    }
+
+    /**
+     * Find the first element > target in a sorted array
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element > target, nums.length if there is none
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public static int upperBound(long[] nums, long target) {
+        return target == Long.MAX_VALUE ? nums.length : lowerBound(nums, target + 1);
+    }
+
+    /**
+     * Find the range of elements equal to target in a sorted array
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return {from, to} such that the elements equal to target are nums[from,
+     *         to)
+     *
+     *         Time complexity : O(logn + log(count of target)) Space complexity :
+     *         O(1)
+     */
+    public static int[] equalRange(long[] nums, long target) {
+        int from = lowerBound(nums, target);
+        int to = target == Long.MAX_VALUE ? nums.length : gallopLowerBound(nums, from, target + 1);
+        return new int[] { from, to };
+    }
+
+    /**
+     * Find the first element >= target in a sorted array, starting from a hint
+     * of where it is
+     *
+     * @param nums   array in non decreasing order
+     * @param hint   index expected to be close to the answer
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller
+     *
+     *         Time complexity : O(logd) where d is the distance from hint to the
+     *         answer Space complexity : O(1)
+     */
+    public static int gallopLowerBound(long[] nums, int hint, long target) {
+        int n = nums.length;
+        if (n == 0) {
+            return 0;
+        }
+        hint = Math.max(0, Math.min(hint, n - 1));
+        int known = 0;
+        int bound = 1;
+        if (nums[hint] < target) {
+            int lo = hint + 1;
+            int limit = n - lo;
+            while (bound <= limit && nums[lo + bound - 1] < target) {
+                known = bound;
+                bound = bound > limit >>> 1 ? limit + 1 : bound << 1;
+            }
+            return binaryLowerBound(nums, lo + known, lo + Math.min(bound, limit), target);
+        }
+        while (bound <= hint && nums[hint - bound] >= target) {
+            known = bound;
+            bound = bound > hint >>> 1 ? hint + 1 : bound << 1;
+        }
+        return binaryLowerBound(nums, hint - Math.min(bound, hint), hint - known, target);
+    }
+
+    /**
+     * Find the first element >= target in a sorted array by interpolation, as
+     * interpolationLowerBound(int[], int)
+     *
+     * @param nums   array in non decreasing order
+     * @param target to look for
+     * @return index of the first element >= target, nums.length if all are
+     *         smaller
+     *
+     *         Time complexity : O(loglogn) on uniform values, O(logn) worst case
+     *         Space complexity : O(1)
+     */
+    public static int interpolationLowerBound(long[] nums, long target) {
+        int n = nums.length;
+        if (n == 0 || target <= nums[0]) {
+            return 0;
+        }
+        if (target > nums[n - 1]) {
+            return n;
+        }
+        // nums[lo] = loVal < target <= hiVal = nums[hi], the answer is in (lo,
+        // hi]. The ends are only read once, every probe becomes one of them.
+        int lo = 0;
+        int hi = n - 1;
+        long loVal = nums[0];
+        long hiVal = nums[n - 1];
+        while (hi - lo > INTERPOLATION_CUTOFF) {
+            int length = hi - lo;
+            // Doubles may round the fraction up to 1, the probe is clamped
+            double fraction = ((double) target - loVal) / ((double) hiVal - loVal);
+            int probe = Math.min(hi - 1, lo + 1 + (int) (fraction * (length - 1)));
+            long val = nums[probe];
+            if (val < target) {
+                lo = probe;
+                loVal = val;
+            } else {
+                hi = probe;
+                hiVal = val;
+            }
+            if (hi - lo > length >>> 1) {
+                int mid = (lo + hi) >>> 1;
+                val = nums[mid];
+                if (val < target) {
+                    lo = mid;
+                    loVal = val;
+                } else {
+                    hi = mid;
+                    hiVal = val;
+                }
+            }
+        }
+        return binaryLowerBound(nums, lo + 1, hi, target);
+    }
+
+    private static boolean isNearlyUniform(long[] nums) {
+        int n = nums.length;
+        double first = nums[0];
+        double span = (double) nums[n - 1] - first;
+        for (int q = 1; q <= 3; q++) {
+            double expected = first + span * q / 4;
+            if (Math.abs(nums[(int) ((long) (n - 1) * q / 4)] - expected) > span / 16) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int binaryLowerBound(long[] nums, int from, int to, long target) {
+        if (from >= to) {
+            return from;
+        }
+        int base = from;
+        for (int len = to - from; len > 1; len -= len >>> 1) {
+            int half = len >>> 1;
+            base = nums[base + half - 1] < target ? base + half : base;
+        }
+        return base + (nums[base] < target ? 1 : 0);
+    }
+
+    // Searches advanced in lockstep by searchAll
+    static final int SEARCH_BATCH = 16;
+    // Sorted queries gallop while they are at most this far apart on average,
+    // sparser ones are cheaper to search in lockstep
+    static final int GALLOP_MAX_GAP = 1 << 10;
+    // Min queries per task of parallelSearchAll
+    static final int PARALLEL_SEARCH_THRESHOLD = 1 << 12;
+
+    /**
+     * Search many elements in a sorted array
+     *
+     * @param sorted  array in non decreasing order
+     * @param queries elements to find
+     * @param out     filled with the index of the first occurrence of each query
+     *                in sorted, -1 if absent
+     *
+     *                Time complexity : O(mlogn) Space complexity : O(1)
+     *
+     *                Note : 1. Sorted queries that are dense enough are answered
+     *                by a galloping walk that resumes where the previous query
+     *                ended, in O(mlog(n/m)). 2. Other queries are searched SEARCH_BATCH at a
+     *                time in lockstep : a branchless search makes the same number
+     *                of steps for every target, so each step issues the loads of
+     *                all searches of the batch together and their cache misses
+     *                overlap instead of being waited for one after the other.
+     */
+    public static void searchAll(int[] sorted, int[] queries, int[] out) {
+        if (out.length < queries.length) {
+            throw new IllegalArgumentException("out is shorter than queries");
+        }
+        searchAll(sorted, queries, out, 0, queries.length);
+    }
+
+    static void searchAll(int[] sorted, int[] queries, int[] out, int from, int to) {
+        if (sorted.length == 0) {
+            Arrays.fill(out, from, to, -1);
+            return;
+        }
+        boolean gallop = (long) (to - from) * GALLOP_MAX_GAP >= sorted.length;
+        for (int i = from + 1; i < to && gallop; i++) {
+            gallop = queries[i - 1] <= queries[i];
+        }
+        if (gallop) {
+            gallopingSearchAll(sorted, queries, out, from, to);
+        } else {
+            interleavedSearchAll(sorted, queries, out, from, to);
+        }
+    }
+
+    /**
+     * Answer ascending queries with a galloping walk over sorted
+     */
+    private static void gallopingSearchAll(int[] sorted, int[] queries, int[] out, int from, int to) {
+        int n = sorted.length;
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            int target = queries[i];
+            pos = gallopLowerBound(sorted, pos, target);
+            out[i] = pos < n && sorted[pos] == target ? pos : -1;
+        }
+    }
+
+    /**
+     * Answer queries SEARCH_BATCH at a time with branchless searches in
+     * lockstep
+     */
+    private static void interleavedSearchAll(int[] sorted, int[] queries, int[] out, int from, int to) {
+        int n = sorted.length;
+        int[] bases = new int[SEARCH_BATCH];
+        for (int start = from; start < to; start += SEARCH_BATCH) {
+            int count = Math.min(SEARCH_BATCH, to - start);
+            Arrays.fill(bases, 0);
+            // Every search halves the same length at every step
+            for (int len = n; len > 1; len -= len >>> 1) {
+                int half = len >>> 1;
+                for (int j = 0; j < count; j++) {
+                    int base = bases[j];
+                    bases[j] = sorted[base + half - 1] < queries[start + j] ? base + half : base;
+                }
+            }
+            for (int j = 0; j < count; j++) {
+                int target = queries[start + j];
+                int lowerBound = bases[j] + (sorted[bases[j]] < target ? 1 : 0);
+                out[start + j] = lowerBound < n && sorted[lowerBound] == target ? lowerBound : -1;
+            }
+        }
+    }
+
+    /**
+     * Search many elements in a sorted array using all cores of the common
+     * fork/join pool
+     *
+     * @param sorted  array in non decreasing order
+     * @param queries elements to find
+     * @param out     filled as by searchAll
+     */
+    public static void parallelSearchAll(int[] sorted, int[] queries, int[] out) {
+        parallelSearchAll(sorted, queries, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Search many elements in a sorted array with fork/join tasks, each task
+     * running searchAll on a range of the queries
+     *
+     * @param sorted  array in non decreasing order
+     * @param queries elements to find
+     * @param out     filled as by searchAll
+     * @param pool    to run the tasks in
+     */
+    public static void parallelSearchAll(int[] sorted, int[] queries, int[] out, ForkJoinPool pool) {
+        if (out.length < queries.length) {
+            throw new IllegalArgumentException("out is shorter than queries");
+        }
+        if (queries.length <= PARALLEL_SEARCH_THRESHOLD) {
+            searchAll(sorted, queries, out, 0, queries.length);
+            return;
+        }
+        pool.invoke(new SearchAllTask(sorted, queries, out, 0, queries.length));
+    }
+
+    static class SearchAllTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int[] sorted;
+        final int[] queries;
+        final int[] out;
+        final int from;
+        final int to;
+
+        SearchAllTask(int[] sorted, int[] queries, int[] out, int from, int to) {
+            this.sorted = sorted;
+            this.queries = queries;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SEARCH_THRESHOLD) {
+                searchAll(sorted, queries, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchAllTask(sorted, queries, out, from, mid),
+                    new SearchAllTask(sorted, queries, out, mid, to));
+        }
+    }
+
     /**
      * Get smallest element's index in a rotated sorted array
      * 
@@ -0,0 +1,859 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Self-contained micro benchmark harness for the library
+ *
+ * Usage : javac *.java && java -Xmx8g Benchmarks [filter] [sizes=16,1024,...]
+ *
+ * For every registered case and input size it reports throughput, percentiles
+ * of the time per call and the allocation rate of the measured code, which is
+ * what the JMH gc profiler would report (bytes per call, MB/s, GC count/time).
+ *
+ * A sample times a batch of calls and records the average time per call of
+ * the batch : BATCH_ELEMENTS / size calls for non mutating cases (65536 calls
+ * at size 16), a single call for mutating ones. The "batch" percentiles are
+ * therefore percentiles of batch averages, they show the spread between
+ * batches but hide the tail latency of individual calls of small sizes.
+ */
+public class Benchmarks {
+
+    static final int[] DEFAULT_SIZES = { 16, 1024, 65536, 1 << 20, 10_000_000 };
+
+    // Non mutating calls are batched so that one sample covers about this many
+    // elements of work, keeping each sample well above the timer resolution.
+    // A sample is the average time per call of its batch.
+    static final int BATCH_ELEMENTS = 1 << 20;
+
+    static final long WARMUP_NANOS = 500_000_000L;
+    static final long MEASURE_NANOS = 1_000_000_000L;
+    static final int MIN_SAMPLES = 3;
+    static final int MAX_SAMPLES = 2000;
+
+    static final List<BenchmarkCase> CASES = new ArrayList<>();
+
+    // Results are folded into this sink so that the JIT cannot drop the work
+    static volatile long sink;
+
+    // Bytes the allocation counter itself reports for an empty sample
+    static long allocationOverhead;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * A measured call prepared for a given input size
+     */
+    interface Workload {
+        long run();
+
+        /**
+         * Release what the input holds outside the heap, called once the
+         * workload is no longer measured and never timed
+         */
+        default void close() {
+        }
+    }
+
+    /**
+     * Prepares the input of a workload, this part is never measured
+     */
+    interface WorkloadFactory {
+        Workload create(int size, Random random);
+    }
+
+    /**
+     * @param workload measured call
+     * @param resource closed with the workload
+     * @return the workload, closing resource when it is closed
+     */
+    static Workload closing(Workload workload, AutoCloseable resource) {
+        return new Workload() {
+            @Override
+            public long run() {
+                return workload.run();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("could not close workload", e);
+                }
+            }
+        };
+    }
+
+    static class BenchmarkCase {
+        final String name;
+        // Mutating calls get a fresh input for every call
+        final boolean mutatesInput;
+        final WorkloadFactory factory;
+        // Larger sizes are skipped, for cases with super linear cost
+        final int maxSize;
+
+        BenchmarkCase(String name, boolean mutatesInput, WorkloadFactory factory, int maxSize) {
+            this.name = name;
+            this.mutatesInput = mutatesInput;
+            this.factory = factory;
+            this.maxSize = maxSize;
+        }
+    }
+
+    static class Result {
+        long ops;
+        long nanos;
+        long allocatedBytes;
+        double[] nanosPerOp;
+        long gcCount;
+        long gcMillis;
+    }
+
+    /**
+     * Register a benchmark case
+     *
+     * @param name         of the case, used for filtering
+     * @param mutatesInput true if the workload destroys its input
+     * @param factory      creating the workload for a size
+     */
+    static void register(String name, boolean mutatesInput, WorkloadFactory factory) {
+        register(name, mutatesInput, factory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Register a benchmark case only measured up to a given size
+     *
+     * @param name         of the case, used for filtering
+     * @param mutatesInput true if the workload destroys its input
+     * @param factory      creating the workload for a size
+     * @param maxSize      largest size to measure
+     */
+    static void register(String name, boolean mutatesInput, WorkloadFactory factory, int maxSize) {
+        CASES.add(new BenchmarkCase(name, mutatesInput, factory, maxSize));
+    }
+
+    static {
+        registerLinkedListCases();
+        registerArrayUtilsCases();
+        registerStringUtilsCases();
+        registerBitUtilsCases();
+        registerConcurrentCases();
+    }
+
+    static void registerLinkedListCases() {
+        register("LinkedList.mergeSort", true, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.mergeSort(head).val;
+        });
+        register("LinkedList.naturalMergeSort", true, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.naturalMergeSort(head).val;
+        });
+        for (int parallelism = 1; parallelism <= Runtime.getRuntime().availableProcessors(); parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            register("LinkedList.parallelMergeSort.threads" + parallelism, true, (size, random) -> {
+                LinkedList.ListNode head = randomList(size, random);
+                return () -> LinkedList.parallelMergeSort(head, LinkedList.DEFAULT_PARALLEL_THRESHOLD, pool).val;
+            });
+        }
+        register("LinkedList.radixSort", true, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.radixSort(head).val;
+        });
+        register("LinkedList.mergeSort.nearlySorted", true, (size, random) -> {
+            LinkedList.ListNode head = toList(nearlySortedArray(size, random));
+            return () -> LinkedList.mergeSort(head).val;
+        });
+        register("LinkedList.naturalMergeSort.nearlySorted", true, (size, random) -> {
+            LinkedList.ListNode head = toList(nearlySortedArray(size, random));
+            return () -> LinkedList.naturalMergeSort(head).val;
+        });
+        register("LinkedList.mergeKSortedLists.k64", true, (size, random) -> {
+            LinkedList.ListNode[] lists = new LinkedList.ListNode[64];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = sortedList(size / lists.length, random);
+            }
+            return () -> {
+                LinkedList.ListNode head = LinkedList.mergeKSortedLists(lists);
+                return head == null ? 0 : head.val;
+            };
+        });
+        register("IntNodePool.mergeSort", true, (size, random) -> {
+            IntNodePool pool = new IntNodePool(size);
+            int head = pool.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return () -> pool.val(pool.mergeSort(head));
+        });
+        register("IntNodePool.getNumOfNodes", false, (size, random) -> {
+            IntNodePool pool = new IntNodePool(size);
+            int head = pool.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return () -> pool.getNumOfNodes(head);
+        });
+        register("OffHeapNodeStore.mergeSort", true, (size, random) -> {
+            OffHeapNodeStore store = new OffHeapNodeStore();
+            int head = store.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return closing(() -> store.mergeSort(head), store);
+        });
+        register("OffHeapNodeStore.getNumOfNodes", false, (size, random) -> {
+            OffHeapNodeStore store = new OffHeapNodeStore();
+            int head = store.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return closing(() -> store.getNumOfNodes(head), store);
+        });
+        register("UnrolledIntList.sum", false, (size, random) -> {
+            UnrolledIntList list = UnrolledIntList.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return list::sum;
+        });
+        register("UnrolledIntList.reverse", false, (size, random) -> {
+            UnrolledIntList list = UnrolledIntList.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return () -> {
+                list.reverse();
+                return list.size();
+            };
+        });
+        register("UnrolledIntList.sort", true, (size, random) -> {
+            UnrolledIntList list = UnrolledIntList.fromArray(randomArray(size, Integer.MAX_VALUE, random));
+            return () -> {
+                list.sort();
+                return list.size();
+            };
+        });
+        register("ListNodeSpliterator.sum", false, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> ListNodeSpliterator.stream(head, size, false).asLongStream().sum();
+        });
+        register("ListNodeSpliterator.sum.parallel", false, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> ListNodeSpliterator.stream(head, size, true).asLongStream().sum();
+        });
+        register("ListNodeSpliterator.sum.parallel.indexed", false, (size, random) -> {
+            ListPositionIndex index = new ListPositionIndex(randomList(size, random));
+            return () -> ListNodeSpliterator.stream(index, true).asLongStream().sum();
+        });
+        register("LinkedList.reverseEvenElements", true, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.reverseEvenElements(head).val;
+        });
+        register("ListPipeline.reverseRuns.toList", false, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> ListPipeline.of(head).reverseRuns(val -> val % 2 == 0).toList().val;
+        });
+        register("ListPipeline.mergeDedupeFilter.sum", false, (size, random) -> {
+            LinkedList.ListNode first = toList(sortedArray(size / 2, random));
+            LinkedList.ListNode second = toList(sortedArray(size - size / 2, random));
+            return () -> ListPipeline.of(first).merge(ListPipeline.of(second)).dedupeAdjacent()
+                    .filter(val -> (val & 1) == 0).sum();
+        });
+        register("LinkedList.detectLoop.findFirstNodeOfCycle", false, (size, random) -> {
+            LinkedList.ListNode head = cyclicList(size, random);
+            return () -> {
+                // Same answers as CycleAnalysis.analyze : cycle start and length
+                LinkedList.ListNode loopStart = LinkedList.findFirstNodeOfCycle(head, LinkedList.detectLoop(head));
+                int cycleLength = 1;
+                for (LinkedList.ListNode cur = loopStart.next; cur != loopStart; cur = cur.next) {
+                    cycleLength++;
+                }
+                return cycleLength;
+            };
+        });
+        register("CycleAnalysis.analyze", false, (size, random) -> {
+            LinkedList.ListNode head = cyclicList(size, random);
+            return () -> CycleAnalysis.analyze(head).cycleLength;
+        });
+        register("CycleAnalysis.classify", false, (size, random) -> {
+            int[] successors = randomArray(size, size, random);
+            return () -> CycleAnalysis.classify(successors).getNumOfCycles();
+        });
+        register("LinkedList.getNumOfNodes", false, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.getNumOfNodes(head);
+        });
+        register("LinkedList.getKthNode", false, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            int[] ks = randomArray(64, size, random);
+            return () -> {
+                long sum = 0;
+                for (int i = 0; i < 64; i++) {
+                    sum += LinkedList.getKthNode(head, ks[i] + 1).val;
+                }
+                return sum;
+            };
+        }, 1 << 20);
+        register("ListPositionIndex.getKthNode", false, (size, random) -> {
+            ListPositionIndex index = new ListPositionIndex(randomList(size, random));
+            int[] ks = randomArray(64, size, random);
+            return () -> {
+                long sum = 0;
+                for (int i = 0; i < 64; i++) {
+                    sum += index.getKthNode(ks[i] + 1).val;
+                }
+                return sum;
+            };
+        });
+        register("IntSkipList.insert", true, (size, random) -> {
+            IntSkipList list = new IntSkipList();
+            int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+            return () -> {
+                for (int num : nums) {
+                    list.insert(num);
+                }
+                return list.size();
+            };
+        });
+        register("LinkedList.reverseLinkedList", true, (size, random) -> {
+            LinkedList.ListNode head = randomList(size, random);
+            return () -> LinkedList.reverseLinkedList(head)[0].val;
+        });
+        register("LinkedList.mergeTwoSortedLists", true, (size, random) -> {
+            LinkedList.ListNode first = sortedList(size / 2, random);
+            LinkedList.ListNode second = sortedList(size - size / 2, random);
+            return () -> LinkedList.mergeTwoSortedLists(first, second).val;
+        });
+    }
+
+    static void registerArrayUtilsCases() {
+        register("ArrayUtils.getNumOfDistinctEle", false, (size, random) -> {
+            int[] nums = randomArray(size, size, random);
+            return () -> ArrayUtils.getNumOfDistinctEle(nums);
+        });
+        register("ArrayUtils.getNumOfDistinctEle.wideRange", false, (size, random) -> {
+            int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+            return () -> ArrayUtils.getNumOfDistinctEle(nums);
+        });
+        register("ArrayUtils.removeDuplicates", true, (size, random) -> {
+            int[] nums = randomArray(size, size, random);
+            return () -> ArrayUtils.removeDuplicates(nums);
+        });
+        // Range too wide for the bitset : sorted by radix sort or parallelSort
+        register("ArrayUtils.removeDuplicates.wideRange", true, (size, random) -> {
+            int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+            return () -> ArrayUtils.removeDuplicates(nums);
+        });
+        register("ArrayUtils.removeDuplicatesKeepOrder", true, (size, random) -> {
+            int[] nums = randomArray(size, size, random);
+            return () -> ArrayUtils.removeDuplicatesKeepOrder(nums);
+        });
+        register("ArrayUtils.removeDuplicatesKeepOrder.wideRange", true, (size, random) -> {
+            int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+            return () -> ArrayUtils.removeDuplicatesKeepOrder(nums);
+        });
+        register("ArrayUtils.mergeKSortedArrays.k64", false, (size, random) -> {
+            int[][] arrays = new int[64][];
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = sortedArray(size / arrays.length, random);
+            }
+            return () -> ArrayUtils.mergeKSortedArrays(arrays).length;
+        });
+        register("ArrayUtils.binarySearch", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> ArrayUtils.binarySearch(nums, queries[next[0]++ & (queries.length - 1)]);
+        });
+        // Uniform values are searched by interpolation, skewed ones (cubes of
+        // uniform values) fail the sample and are searched by binary search
+        register("ArrayUtils.lowerBound", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> ArrayUtils.lowerBound(nums, queries[next[0]++ & (queries.length - 1)]);
+        });
+        register("ArrayUtils.lowerBound.skewed", false, (size, random) -> {
+            int[] nums = new int[size];
+            for (int i = 0; i < size; i++) {
+                double x = random.nextDouble();
+                nums[i] = (int) (x * x * x * Integer.MAX_VALUE);
+            }
+            Arrays.sort(nums);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> ArrayUtils.lowerBound(nums, queries[next[0]++ & (queries.length - 1)]);
+        });
+        register("ArrayUtils.equalRange", false, (size, random) -> {
+            int[] nums = randomArray(size, Math.max(1, size / 16), random);
+            Arrays.sort(nums);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> ArrayUtils.equalRange(nums, queries[next[0]++ & (queries.length - 1)])[1];
+        });
+        // Sorted values rotated at a random point, as in a ring buffer
+        register("RotatedSortedIntView.indexOf", false, (size, random) -> {
+            int[] sorted = sortedArray(size, random);
+            int[] nums = new int[size];
+            int pivot = random.nextInt(size);
+            for (int i = 0; i < size; i++) {
+                nums[(pivot + i) % size] = sorted[i];
+            }
+            RotatedSortedIntView view = new RotatedSortedIntView(nums);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> view.indexOf(queries[next[0]++ & (queries.length - 1)]);
+        });
+        // Same queries through the Eytzinger layout, sizes span L1, L2/L3 and DRAM
+        register("SortedIntIndex.indexOf", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            SortedIntIndex index = new SortedIntIndex(nums);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> index.indexOf(queries[next[0]++ & (queries.length - 1)]);
+        });
+        register("SortedIntIndex.lowerBound", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            SortedIntIndex index = new SortedIntIndex(nums);
+            int[] queries = queries(nums, random);
+            int[] next = new int[1];
+            return () -> index.lowerBound(queries[next[0]++ & (queries.length - 1)]);
+        });
+        // Batches of queries.length searches : one by one, interleaved, and as a
+        // sorted batch walked by galloping
+        register("ArrayUtils.binarySearch.batch", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            int[] queries = queries(nums, random);
+            int[] out = new int[queries.length];
+            return () -> {
+                for (int i = 0; i < queries.length; i++) {
+                    out[i] = ArrayUtils.binarySearch(nums, queries[i]);
+                }
+                return out[0];
+            };
+        });
+        register("ArrayUtils.searchAll", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            int[] queries = queries(nums, random);
+            int[] out = new int[queries.length];
+            return () -> {
+                ArrayUtils.searchAll(nums, queries, out);
+                return out[0];
+            };
+        });
+        register("ArrayUtils.searchAll.sortedQueries", false, (size, random) -> {
+            int[] nums = sortedArray(size, random);
+            int[] queries = queries(nums, random);
+            Arrays.sort(queries);
+            int[] out = new int[queries.length];
+            return () -> {
+                ArrayUtils.searchAll(nums, queries, out);
+                return out[0];
+            };
+        });
+    }
+
+    static void registerStringUtilsCases() {
+        register("StringUtils.areAnagrams", false, (size, random) -> {
+            char[] chars = new char[size];
+            for (int i = 0; i < size; i++) {
+                chars[i] = (char) ('a' + random.nextInt(26));
+            }
+            String a = new String(chars);
+            shuffle(chars, random);
+            String b = new String(chars);
+            return () -> StringUtils.areAnagrams(a, b) ? 1 : 0;
+        });
+    }
+
+    static void registerBitUtilsCases() {
+        registerMaskCase("BitUtils.setBit", (n, i) -> BitUtils.setBit(n, i));
+        registerMaskCase("BitUtils.clearBit", (n, i) -> BitUtils.clearBit(n, i));
+        registerMaskCase("BitUtils.clearLowerBits", (n, i) -> BitUtils.clearLowerBits(n, i));
+        registerMaskCase("BitUtils.setLowerBits", (n, i) -> BitUtils.setLowerBits(n, i));
+        registerMaskCase("BitUtils.setBitsInRange", (n, i) -> BitUtils.setBitsInRange(n, i, 4));
+    }
+
+    /**
+     * Each call inserts size random values from the given number of threads into
+     * an empty sorted list, then removes half of them
+     */
+    static void registerConcurrentCases() {
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ExecutorService executor = newDaemonPool(threads);
+            int numThreads = threads;
+            register("ConcurrentSortedIntList.insertRemove.threads" + threads, true, (size, random) -> {
+                ConcurrentSortedIntList list = new ConcurrentSortedIntList();
+                int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+                return () -> {
+                    runConcurrently(executor, numThreads, nums, i -> list.insert(nums[i]));
+                    runConcurrently(executor, numThreads, nums, i -> {
+                        if ((i & 1) == 0) {
+                            list.remove(nums[i]);
+                        }
+                    });
+                    return list.size();
+                };
+            }, 16384);
+            register("ConcurrentIntSkipList.insertRemove.threads" + threads, true, (size, random) -> {
+                ConcurrentIntSkipList list = new ConcurrentIntSkipList();
+                int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+                return () -> {
+                    runConcurrently(executor, numThreads, nums, i -> list.insert(nums[i]));
+                    runConcurrently(executor, numThreads, nums, i -> {
+                        if ((i & 1) == 0) {
+                            list.remove(nums[i]);
+                        }
+                    });
+                    return list.size();
+                };
+            });
+            for (IntKeyCache.EvictionPolicy policy : IntKeyCache.EvictionPolicy.values()) {
+                register("IntKeyCache." + policy + ".getPut.threads" + threads, false, (size, random) -> {
+                    // Half as many entries as keys, a miss puts the key
+                    IntKeyCache<Integer> cache = new IntKeyCache<>(policy, Math.max(1, size / 2));
+                    int[] keys = randomArray(size, size, random);
+                    return () -> {
+                        runConcurrently(executor, numThreads, keys, i -> {
+                            if (cache.get(keys[i]) == null) {
+                                cache.put(keys[i], i);
+                            }
+                        });
+                        return cache.size();
+                    };
+                });
+            }
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            register("CycleAnalysis.parallelClassify.threads" + threads, false, (size, random) -> {
+                int[] successors = randomArray(size, size, random);
+                return () -> CycleAnalysis.parallelClassify(successors, pool).getNumOfCycles();
+            });
+            register("ArrayUtils.parallelSearchAll.threads" + threads, false, (size, random) -> {
+                // 16 batches of queries per call so that every thread gets some
+                int[] nums = sortedArray(size, random);
+                int[] queries = new int[16 << 12];
+                for (int i = 0; i < queries.length; i += 1 << 12) {
+                    System.arraycopy(queries(nums, random), 0, queries, i, 1 << 12);
+                }
+                int[] out = new int[queries.length];
+                return () -> {
+                    ArrayUtils.parallelSearchAll(nums, queries, out, pool);
+                    return out[0];
+                };
+            });
+            register("PersistentIntList.Publisher.readMostly.threads" + threads, false, (size, random) -> {
+                // One in 16 calls replaces the head, the others read a snapshot
+                int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+                PersistentIntList.Publisher publisher = new PersistentIntList.Publisher(
+                        PersistentIntList.fromArray(nums));
+                return () -> {
+                    runConcurrently(executor, numThreads, nums, i -> {
+                        if ((i & 15) == 0) {
+                            publisher.update(list -> list.delete(0).prepend(nums[i]));
+                        } else {
+                            publisher.snapshot().get((i & 63) % size);
+                        }
+                    });
+                    return publisher.snapshot().get(0);
+                };
+            });
+            register("LinkedList.insertIntoSortedCircularList.locked.threads" + threads, true, (size, random) -> {
+                Object lock = new Object();
+                LinkedList.ListNode[] head = new LinkedList.ListNode[1];
+                int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+                return () -> {
+                    runConcurrently(executor, numThreads, nums, i -> {
+                        synchronized (lock) {
+                            head[0] = LinkedList.insertIntoSortedCircularList(head[0], nums[i]);
+                        }
+                    });
+                    return head[0].val;
+                };
+            }, 16384);
+        }
+    }
+
+    static ExecutorService newDaemonPool(int threads) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run task for every index of nums, the indices being split between threads
+     */
+    static void runConcurrently(ExecutorService executor, int threads, int[] nums, IntConsumer task) {
+        List<Callable<Void>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) nums.length * t / threads);
+            int to = (int) ((long) nums.length * (t + 1) / threads);
+            parts.add(() -> {
+                for (int i = from; i < to; i++) {
+                    task.accept(i);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> part : executor.invokeAll(parts)) {
+                part.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    interface MaskOperation {
+        long apply(long n, int bitIndex);
+    }
+
+    /**
+     * Register a mask helper case, one call applies the helper to size numbers
+     */
+    static void registerMaskCase(String name, MaskOperation operation) {
+        register(name, false, (size, random) -> {
+            long[] values = new long[size];
+            int[] bitIndices = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextLong();
+                bitIndices[i] = 4 + random.nextInt(27);
+            }
+            return () -> {
+                long acc = 0;
+                for (int i = 0; i < values.length; i++) {
+                    acc += operation.apply(values[i], bitIndices[i]);
+                }
+                return acc;
+            };
+        });
+    }
+
+    public static void main(String[] args) {
+        String filter = null;
+        int[] sizes = DEFAULT_SIZES;
+        for (String arg : args) {
+            if (arg.startsWith("sizes=")) {
+                sizes = Arrays.stream(arg.substring("sizes=".length()).split(",")).mapToInt(Integer::parseInt)
+                        .toArray();
+            } else {
+                filter = arg;
+            }
+        }
+
+        enableAllocationCounting();
+        System.out.printf("%-44s %10s %14s %14s %14s %14s %14s %14s %12s %10s%n", "Benchmark", "size", "ops/s",
+                "batch p50 ns", "batch p90 ns", "batch p99 ns", "batch p99.9 ns", "alloc B/op", "alloc MB/s",
+                "gc(ms)");
+        for (BenchmarkCase benchmarkCase : CASES) {
+            if (filter != null && !benchmarkCase.name.contains(filter)) {
+                continue;
+            }
+            for (int size : sizes) {
+                if (size > benchmarkCase.maxSize) {
+                    continue;
+                }
+                Result result = measure(benchmarkCase, size);
+                print(benchmarkCase.name, size, result);
+            }
+        }
+    }
+
+    /**
+     * Warm up and then measure a case at the given size
+     *
+     * @param benchmarkCase to measure
+     * @param size          of the input
+     * @return the measured result
+     */
+    static Result measure(BenchmarkCase benchmarkCase, int size) {
+        Random random = new Random(size);
+        run(benchmarkCase, size, random, WARMUP_NANOS);
+        long gcCount = getGcCount();
+        long gcMillis = getGcMillis();
+        Result result = run(benchmarkCase, size, random, MEASURE_NANOS);
+        result.gcCount = getGcCount() - gcCount;
+        result.gcMillis = getGcMillis() - gcMillis;
+        return result;
+    }
+
+    static Result run(BenchmarkCase benchmarkCase, int size, Random random, long budgetNanos) {
+        int batch = benchmarkCase.mutatesInput ? 1 : Math.max(1, BATCH_ELEMENTS / size);
+        double[] nanosPerOp = new double[MAX_SAMPLES];
+        Result result = new Result();
+        Workload workload = benchmarkCase.mutatesInput ? null : benchmarkCase.factory.create(size, random);
+        int samples = 0;
+        long started = System.nanoTime();
+        while (samples < MAX_SAMPLES && (samples < MIN_SAMPLES || System.nanoTime() - started < budgetNanos)) {
+            if (benchmarkCase.mutatesInput) {
+                workload = benchmarkCase.factory.create(size, random);
+            }
+            long acc = 0;
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < batch; i++) {
+                acc += workload.run();
+            }
+            long elapsed = System.nanoTime() - start;
+            result.allocatedBytes += Math.max(0, getAllocatedBytes() - allocated - allocationOverhead);
+            sink += acc;
+
+            result.ops += batch;
+            result.nanos += elapsed;
+            nanosPerOp[samples++] = (double) elapsed / batch;
+            if (benchmarkCase.mutatesInput) {
+                workload.close();
+            }
+        }
+        if (!benchmarkCase.mutatesInput) {
+            workload.close();
+        }
+        result.nanosPerOp = Arrays.copyOf(nanosPerOp, samples);
+        Arrays.sort(result.nanosPerOp);
+        return result;
+    }
+
+    static void print(String name, int size, Result result) {
+        double seconds = result.nanos / 1e9;
+        System.out.printf("%-44s %10d %14.1f %14.1f %14.1f %14.1f %14.1f %14.1f %12.1f %4d(%4d)%n", name, size,
+                result.ops / seconds, percentile(result.nanosPerOp, 0.50), percentile(result.nanosPerOp, 0.90),
+                percentile(result.nanosPerOp, 0.99), percentile(result.nanosPerOp, 0.999),
+                (double) result.allocatedBytes / result.ops, result.allocatedBytes / seconds / (1 << 20),
+                result.gcCount, result.gcMillis);
+    }
+
+    /**
+     * Nearest rank percentile
+     *
+     * @param sorted samples
+     * @param p      percentile in [0, 1]
+     * @return the sample at percentile p
+     */
+    static double percentile(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    static void enableAllocationCounting() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+
+        // Calibrate : the smallest delta seen between 2 back to back reads
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10_000; i++) {
+            long start = getAllocatedBytes();
+            overhead = Math.min(overhead, getAllocatedBytes() - start);
+        }
+        allocationOverhead = overhead;
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, 0 if the JVM can not tell
+     */
+    static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    static long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // Input generators
+
+    static int[] randomArray(int size, int bound, Random random) {
+        int[] nums = new int[size];
+        for (int i = 0; i < size; i++) {
+            nums[i] = random.nextInt(Math.max(1, bound));
+        }
+        return nums;
+    }
+
+    static int[] sortedArray(int size, Random random) {
+        int[] nums = randomArray(size, Integer.MAX_VALUE, random);
+        Arrays.sort(nums);
+        return nums;
+    }
+
+    /**
+     * A sorted array with about 1% of the elements swapped to random positions
+     */
+    static int[] nearlySortedArray(int size, Random random) {
+        int[] nums = sortedArray(size, random);
+        for (int i = 0; i < size / 100; i++) {
+            ArrayUtils.swap(nums, random.nextInt(size), random.nextInt(size));
+        }
+        return nums;
+    }
+
+    /**
+     * A power of 2 sized set of queries, half of them present in nums
+     */
+    static int[] queries(int[] nums, Random random) {
+        int[] queries = new int[1 << 12];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = (i & 1) == 0 ? nums[random.nextInt(nums.length)] : random.nextInt();
+        }
+        return queries;
+    }
+
+    static LinkedList.ListNode randomList(int size, Random random) {
+        return toList(randomArray(size, Integer.MAX_VALUE, random));
+    }
+
+    /**
+     * List whose last node links back to a random node
+     */
+    static LinkedList.ListNode cyclicList(int size, Random random) {
+        LinkedList.ListNode head = randomList(size, random);
+        LinkedList.ListNode loopStart = LinkedList.skipNodes(head, random.nextInt(size));
+        LinkedList.ListNode tail = head;
+        while (tail.next != null) {
+            tail = tail.next;
+        }
+        tail.next = loopStart;
+        return head;
+    }
+
+    static LinkedList.ListNode sortedList(int size, Random random) {
+        return toList(sortedArray(size, random));
+    }
+
+    static LinkedList.ListNode toList(int[] nums) {
+        LinkedList.ListNode dummy = new LinkedList.ListNode(-1);
+        LinkedList.ListNode tail = dummy;
+        for (int num : nums) {
+            tail.next = new LinkedList.ListNode(num);
+            tail = tail.next;
+        }
+        return dummy.next;
+    }
+
+    static void shuffle(char[] chars, Random random) {
+        for (int i = chars.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char temp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = temp;
+        }
+    }
+}
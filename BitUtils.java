@@ -14,7 +14,7 @@ public class BitUtils {
      *         Time complexity : O(1) Space complexity : O(1)
      */
     public static long setBit(long n, int bitIndex) {
-        n |= (1 << bitIndex);
+        n |= (1L << bitIndex);
         return n;
     }
 
@@ -28,7 +28,7 @@ public class BitUtils {
      *         Time complexity : O(1) Space complexity : O(1)
      */
     public static long clearBit(long n, int bitIndex) {
-        n &= ~(1 << bitIndex);
+        n &= ~(1L << bitIndex);
         return n;
     }
 
@@ -42,7 +42,7 @@ public class BitUtils {
      *         Time complexity : O(1) Space complexity : O(1)
      */
     public static long clearLowerBits(long n, int numBits) {
-        n &= ~((1 << numBits) - 1);
+        n &= ~((1L << numBits) - 1);
         return n;
     }
 
@@ -56,7 +56,7 @@ public class BitUtils {
      *         Time complexity : O(1) Space complexity : O(1)
      */
     public static long setLowerBits(long n, int numBits) {
-        n |= ((1 << numBits) - 1);
+        n |= ((1L << numBits) - 1);
         return n;
     }
 
@@ -71,9 +71,43 @@ public class BitUtils {
      *         Time complexity : O(1) Space complexity : O(1)
      */
     public static long setBitsInRange(long n, int bitIndex, int numBits) {
-        long mask = (1 << numBits) - 1;
+        long mask = (1L << numBits) - 1;
         n |= (mask << (bitIndex - numBits + 1));
         return n;
     }
 
-}
\ No newline at end of file
+    /**
+     * Get the bits in a given range
+     * 
+     * @param n        number to read bits from
+     * @param bitIndex starting index of the range
+     * @param numBits  towards the right
+     * @return the bits of the range moved to the lowest positions
+     * 
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public static long getBitsInRange(long n, int bitIndex, int numBits) {
+        long mask = (1L << numBits) - 1;
+        return (n >>> (bitIndex - numBits + 1)) & mask;
+    }
+
+    /**
+     * Replace the bits in a given range with the lowest bits of a value
+     * 
+     * @param n        number to replace bits in
+     * @param bitIndex starting index of the range
+     * @param numBits  towards the right
+     * @param value    whose lowest numBits bits are written to the range
+     * @return the resulting number
+     * 
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public static long replaceBitsInRange(long n, int bitIndex, int numBits, long value) {
+        long mask = (1L << numBits) - 1;
+        int shift = bitIndex - numBits + 1;
+        n &= ~(mask << shift);
+        n |= (value & mask) << shift;
+        return n;
+    }
+
+}
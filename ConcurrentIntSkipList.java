@@ -0,0 +1,319 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted set of ints with a skip list index, safe for many readers and
+ * writers
+ *
+ * A lazy skip list (Herlihy, Lev, Luchangco, Shavit) : searches take no
+ * locks, insert and remove only lock the predecessors of the node they
+ * change, validate and retry on conflict. A node is only visible as present
+ * once fully linked and stops being present as soon as it is marked, so
+ * contains is wait-free.
+ *
+ * Iteration and range scans are weakly consistent.
+ */
+public class ConcurrentIntSkipList {
+
+    static final int MAX_LEVEL = 32;
+
+    static final class Node {
+        // Values widened to long so that the sentinels sort before and after
+        // every int
+        final long key;
+        final Node[] next;
+        final int topLevel;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean marked;
+        volatile boolean fullyLinked;
+
+        Node(long key, int topLevel) {
+            this.key = key;
+            this.next = new Node[topLevel + 1];
+            this.topLevel = topLevel;
+        }
+    }
+
+    // Volatile access to the tower elements
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    private static Node next(Node node, int level) {
+        return (Node) NEXT.getVolatile(node.next, level);
+    }
+
+    private static void setNext(Node node, int level, Node next) {
+        NEXT.setVolatile(node.next, level, next);
+    }
+
+    private final Node head = new Node(Long.MIN_VALUE, MAX_LEVEL - 1);
+    private final Node tail = new Node(Long.MAX_VALUE, MAX_LEVEL - 1);
+
+    public ConcurrentIntSkipList() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = tail;
+        }
+        head.fullyLinked = true;
+        tail.fullyLinked = true;
+    }
+
+    /**
+     * Random top level, geometric with p = 1/2
+     */
+    static int randomLevel() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1)));
+    }
+
+    /**
+     * Find the predecessors and successors of a value on every level
+     *
+     * @param key   to look for
+     * @param preds filled with the last node < key on each level
+     * @param succs filled with the first node >= key on each level
+     * @return highest level where key was found, -1 if not found
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(1)
+     */
+    int find(long key, Node[] preds, Node[] succs) {
+        int levelFound = -1;
+        Node pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node curr = next(pred, level);
+            while (key > curr.key) {
+                pred = curr;
+                curr = next(pred, level);
+            }
+            if (levelFound == -1 && key == curr.key) {
+                levelFound = level;
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return levelFound;
+    }
+
+    /**
+     * Insert a value
+     *
+     * @param val to insert
+     * @return true if val was not already present
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(logn)
+     *         expected
+     */
+    public boolean insert(int val) {
+        int topLevel = randomLevel();
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        while (true) {
+            int levelFound = find(val, preds, succs);
+            if (levelFound != -1) {
+                Node found = succs[levelFound];
+                if (!found.marked) {
+                    // Present, wait until the inserting thread has published it
+                    while (!found.fullyLinked) {
+                        Thread.onSpinWait();
+                    }
+                    return false;
+                }
+                // Being removed, retry once it is unlinked
+                continue;
+            }
+
+            int highestLocked = -1;
+            try {
+                // 1. Lock and validate the predecessors bottom up
+                boolean valid = true;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node pred = preds[level];
+                    Node succ = succs[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && !succ.marked && next(pred, level) == succ;
+                }
+                if (!valid) {
+                    continue;
+                }
+
+                // 2. Link the new node, it becomes present once fully linked
+                Node node = new Node(val, topLevel);
+                for (int level = 0; level <= topLevel; level++) {
+                    node.next[level] = succs[level];
+                }
+                for (int level = 0; level <= topLevel; level++) {
+                    setNext(preds[level], level, node);
+                }
+                node.fullyLinked = true;
+                return true;
+            } finally {
+                for (int level = 0; level <= highestLocked; level++) {
+                    preds[level].lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param val to remove
+     * @return true if val was present and this call removed it
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(logn)
+     */
+    public boolean remove(int val) {
+        Node victim = null;
+        boolean isMarked = false;
+        int topLevel = -1;
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        while (true) {
+            int levelFound = find(val, preds, succs);
+            if (levelFound != -1) {
+                victim = succs[levelFound];
+            }
+            if (!isMarked && (levelFound == -1 || !victim.fullyLinked || victim.topLevel != levelFound
+                    || victim.marked)) {
+                return false;
+            }
+
+            if (!isMarked) {
+                // 1. Logical deletion : mark the victim under its lock
+                topLevel = victim.topLevel;
+                victim.lock.lock();
+                if (victim.marked) {
+                    victim.lock.unlock();
+                    return false;
+                }
+                victim.marked = true;
+                isMarked = true;
+            }
+
+            int highestLocked = -1;
+            try {
+                // 2. Lock and validate the predecessors
+                boolean valid = true;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node pred = preds[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && next(pred, level) == victim;
+                }
+                if (!valid) {
+                    continue;
+                }
+
+                // 3. Physical deletion, top down
+                for (int level = topLevel; level >= 0; level--) {
+                    setNext(preds[level], level, next(victim, level));
+                }
+                victim.lock.unlock();
+                return true;
+            } finally {
+                for (int level = 0; level <= highestLocked; level++) {
+                    preds[level].lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the first node with a key >= val, wait-free
+     */
+    private Node lowerBound(long key) {
+        Node pred = head;
+        Node curr = null;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            curr = next(pred, level);
+            while (key > curr.key) {
+                pred = curr;
+                curr = next(pred, level);
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * Check if a value is present, wait-free
+     *
+     * @param val to look for
+     * @return true if present
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(1)
+     */
+    public boolean contains(int val) {
+        Node node = lowerBound(val);
+        return node.key == val && node.fullyLinked && !node.marked;
+    }
+
+    /**
+     * @return number of values present during the traversal
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int size() {
+        int size = 0;
+        for (Node node = next(head, 0); node != tail; node = next(node, 0)) {
+            if (node.fullyLinked && !node.marked) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return weakly consistent iterator over all values in increasing order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new RangeIterator(next(head, 0), Long.MAX_VALUE);
+    }
+
+    /**
+     * Scan the values in a range, weakly consistent
+     *
+     * @param from smallest value, inclusive
+     * @param to   largest value, exclusive
+     * @return iterator over the values in [from, to) in increasing order
+     *
+     *         Time complexity : O(logn) to start, O(1) per value Space complexity
+     *         : O(1)
+     */
+    public PrimitiveIterator.OfInt range(int from, int to) {
+        return new RangeIterator(lowerBound(from), to);
+    }
+
+    class RangeIterator implements PrimitiveIterator.OfInt {
+        private Node next;
+        private final long to;
+
+        RangeIterator(Node first, long to) {
+            this.to = to;
+            this.next = skipAbsent(first);
+        }
+
+        private Node skipAbsent(Node node) {
+            while (node != tail && (node.marked || !node.fullyLinked)) {
+                node = ConcurrentIntSkipList.next(node, 0);
+            }
+            return node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != tail && next.key < to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int val = (int) next.key;
+            next = skipAbsent(ConcurrentIntSkipList.next(next, 0));
+            return val;
+        }
+    }
+}
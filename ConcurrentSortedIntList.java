@@ -0,0 +1,213 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Lock-free sorted set of ints backed by a singly linked list
+ *
+ * Follows Harris' algorithm : a node is removed by first marking it (logical
+ * deletion) and then unlinking it with a CAS on its predecessor (physical
+ * deletion). Traversals that meet marked nodes help unlinking them, so no
+ * thread ever waits on another one.
+ *
+ * As in ConcurrentSkipListMap, a node is marked by CASing a marker node in as
+ * its next. A marked node's next never changes again, so an insert after it
+ * fails its CAS, and plain volatile next fields updated with a VarHandle keep
+ * traversals to one load per node.
+ *
+ * All operations are linearizable except iteration, which is weakly
+ * consistent : it sees every value present for the whole iteration and never
+ * fails with concurrent modifications.
+ */
+public class ConcurrentSortedIntList {
+
+    static final class Node {
+        final int val;
+        final boolean marker;
+        volatile Node next;
+
+        Node(int val, Node next) {
+            this.val = val;
+            this.next = next;
+            this.marker = false;
+        }
+
+        // Marker node
+        Node(Node next) {
+            this.val = 0;
+            this.next = next;
+            this.marker = true;
+        }
+
+        boolean isDeleted() {
+            Node n = next;
+            return n != null && n.marker;
+        }
+    }
+
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            NEXT = MethodHandles.lookup().findVarHandle(Node.class, "next", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static boolean casNext(Node node, Node expected, Node update) {
+        return NEXT.compareAndSet(node, expected, update);
+    }
+
+    // Sentinel, never deleted and its value is never compared
+    private final Node head = new Node(0, null);
+
+    /**
+     * Insert a value, keeping the order
+     *
+     * @param val to insert
+     * @return true if val was not already present
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public boolean insert(int val) {
+        retry: while (true) {
+            Node pred = head;
+            Node curr = pred.next;
+            while (true) {
+                if (curr != null) {
+                    Node succ = curr.next;
+                    if (succ != null && succ.marker) {
+                        // curr is logically deleted, help unlinking it
+                        if (!casNext(pred, curr, succ.next)) {
+                            continue retry;
+                        }
+                        curr = succ.next;
+                        continue;
+                    }
+                    if (curr.val < val) {
+                        pred = curr;
+                        curr = succ;
+                        continue;
+                    }
+                    if (curr.val == val) {
+                        return false;
+                    }
+                }
+                // Fails if pred was deleted or got a new next meanwhile
+                if (casNext(pred, curr, new Node(val, curr))) {
+                    return true;
+                }
+                continue retry;
+            }
+        }
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param val to remove
+     * @return true if val was present and this call removed it
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public boolean remove(int val) {
+        retry: while (true) {
+            Node pred = head;
+            Node curr = pred.next;
+            while (true) {
+                if (curr == null) {
+                    return false;
+                }
+                Node succ = curr.next;
+                if (succ != null && succ.marker) {
+                    if (!casNext(pred, curr, succ.next)) {
+                        continue retry;
+                    }
+                    curr = succ.next;
+                    continue;
+                }
+                if (curr.val < val) {
+                    pred = curr;
+                    curr = succ;
+                    continue;
+                }
+                if (curr.val != val) {
+                    return false;
+                }
+                // 1. Logical deletion : mark curr
+                if (!casNext(curr, succ, new Node(succ))) {
+                    continue retry;
+                }
+                // 2. Physical deletion, left to later traversals if it fails
+                casNext(pred, curr, succ);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Check if a value is present, wait-free
+     *
+     * @param val to look for
+     * @return true if present
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public boolean contains(int val) {
+        for (Node curr = head.next; curr != null; curr = curr.next) {
+            if (!curr.marker && curr.val >= val) {
+                return curr.val == val && !curr.isDeleted();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of values present during the traversal
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int size() {
+        int size = 0;
+        for (Node curr = head.next; curr != null; curr = curr.next) {
+            if (!curr.marker && !curr.isDeleted()) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return weakly consistent iterator over the values in increasing order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Node next = advance(head);
+
+            private Node advance(Node node) {
+                Node curr = node.next;
+                while (curr != null && (curr.marker || curr.isDeleted())) {
+                    curr = curr.next;
+                }
+                return curr;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                int val = next.val;
+                next = advance(next);
+                return val;
+            }
+        };
+    }
+}
@@ -0,0 +1,509 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cycle analysis of linked lists and successor graphs
+ *
+ * analyze finds the tail length, cycle start and cycle length of a single
+ * chain in one call with Brent's algorithm, instead of the three traversals of
+ * detectLoop, findFirstNodeOfCycle and breakLoop.
+ *
+ * classify and parallelClassify analyze a whole functional graph given as a
+ * successor array, where successors[v] is the node after v or -1 if v ends a
+ * chain. Every node gets the cycle its chain ends in and its distance to it in
+ * O(n).
+ */
+public class CycleAnalysis {
+
+    // No one should create an object
+    private CycleAnalysis() {
+    }
+
+    /**
+     * Shape of a linked list : tailLength nodes followed by a cycle of
+     * cycleLength nodes, or just tailLength nodes if cycleLength is 0
+     */
+    public static final class Cycle {
+        public final int tailLength;
+        public final int cycleLength;
+        // First node of the cycle, null if there is no cycle
+        public final LinkedList.ListNode cycleStart;
+        // Node of the cycle linking back to cycleStart, null if there is no
+        // cycle
+        public final LinkedList.ListNode cycleEnd;
+
+        Cycle(int tailLength, int cycleLength, LinkedList.ListNode cycleStart, LinkedList.ListNode cycleEnd) {
+            this.tailLength = tailLength;
+            this.cycleLength = cycleLength;
+            this.cycleStart = cycleStart;
+            this.cycleEnd = cycleEnd;
+        }
+
+        public boolean hasCycle() {
+            return cycleLength > 0;
+        }
+
+        /**
+         * Break the cycle by ending the list at cycleEnd
+         *
+         * Time complexity : O(1) Space complexity : O(1)
+         */
+        public void breakLoop() {
+            if (cycleEnd != null) {
+                cycleEnd.next = null;
+            }
+        }
+    }
+
+    /**
+     * Analyze a linked list with Brent's algorithm
+     *
+     * @param head of the linked list
+     * @return tail length, cycle length, first and last node of the cycle
+     *
+     *         Time complexity : O(tail + cycle) Space complexity : O(1)
+     *
+     *         Note : 1. The hare searches for the cycle length in windows of
+     *         doubling size while the tortoise waits at the start of the window,
+     *         so every node is visited a constant number of times and no second
+     *         pass is needed to measure the cycle. 2. The cycle start is then
+     *         found by walking two pointers cycleLength apart, from the last
+     *         window known to start before the cycle.
+     */
+    public static Cycle analyze(LinkedList.ListNode head) {
+        if (head == null) {
+            return new Cycle(0, 0, null, null);
+        }
+
+        // 1. Find the cycle length
+        int power = 1;
+        int cycleLength = 1;
+        int steps = 1;
+        LinkedList.ListNode tortoise = head;
+        int tortoiseIndex = 0;
+        // Last window that ended without a meeting
+        LinkedList.ListNode prevTortoise = head;
+        int prevTortoiseIndex = 0;
+        int prevWindow = 0;
+        LinkedList.ListNode hare = head.next;
+        while (hare != tortoise) {
+            if (hare == null) {
+                // No cycle, the hare has counted every node
+                return new Cycle(steps, 0, null, null);
+            }
+            if (power == cycleLength) {
+                prevTortoise = tortoise;
+                prevTortoiseIndex = tortoiseIndex;
+                prevWindow = power;
+                tortoise = hare;
+                tortoiseIndex = steps;
+                power <<= 1;
+                cycleLength = 0;
+            }
+            hare = hare.next;
+            cycleLength++;
+            steps++;
+        }
+
+        // 2. Walk two pointers cycleLength apart until they meet at the start. A
+        // window at least as long as the cycle that ended without a meeting
+        // started before the cycle, so the walk can start there.
+        LinkedList.ListNode from = prevWindow >= cycleLength ? prevTortoise : head;
+        int tailLength = prevWindow >= cycleLength ? prevTortoiseIndex : 0;
+        LinkedList.ListNode prevHare = null;
+        hare = from;
+        for (int i = 0; i < cycleLength; i++) {
+            prevHare = hare;
+            hare = hare.next;
+        }
+        tortoise = from;
+        while (tortoise != hare) {
+            tortoise = tortoise.next;
+            prevHare = hare;
+            hare = hare.next;
+            tailLength++;
+        }
+        return new Cycle(tailLength, cycleLength, tortoise, prevHare);
+    }
+
+    /**
+     * Analyze the chain starting at a node of a successor array with Brent's
+     * algorithm
+     *
+     * @param successors next node of every node, -1 to end a chain
+     * @param start      first node of the chain
+     * @return [tail length, first node of the cycle or -1, cycle length]
+     *
+     *         Time complexity : O(tail + cycle) Space complexity : O(1)
+     */
+    public static int[] analyze(int[] successors, int start) {
+        int power = 1;
+        int cycleLength = 1;
+        int steps = 1;
+        int tortoise = start;
+        int tortoiseIndex = 0;
+        int prevTortoise = start;
+        int prevTortoiseIndex = 0;
+        int prevWindow = 0;
+        int hare = successors[start];
+        while (hare != tortoise) {
+            if (hare == -1) {
+                return new int[] { steps, -1, 0 };
+            }
+            if (power == cycleLength) {
+                prevTortoise = tortoise;
+                prevTortoiseIndex = tortoiseIndex;
+                prevWindow = power;
+                tortoise = hare;
+                tortoiseIndex = steps;
+                power <<= 1;
+                cycleLength = 0;
+            }
+            hare = successors[hare];
+            cycleLength++;
+            steps++;
+        }
+
+        int from = prevWindow >= cycleLength ? prevTortoise : start;
+        int tailLength = prevWindow >= cycleLength ? prevTortoiseIndex : 0;
+        hare = from;
+        for (int i = 0; i < cycleLength; i++) {
+            hare = successors[hare];
+        }
+        tortoise = from;
+        while (tortoise != hare) {
+            tortoise = successors[tortoise];
+            hare = successors[hare];
+            tailLength++;
+        }
+        return new int[] { tailLength, tortoise, cycleLength };
+    }
+
+    /**
+     * Cycle membership of every node of a successor graph
+     *
+     * A cycle is identified by its smallest node.
+     */
+    public static final class Classification {
+        private final int[] cycleIds;
+        private final int[] distances;
+        // Indexed by cycle id
+        private final int[] cycleLengths;
+        private final int numCycles;
+
+        Classification(int[] cycleIds, int[] distances, int[] cycleLengths, int numCycles) {
+            this.cycleIds = cycleIds;
+            this.distances = distances;
+            this.cycleLengths = cycleLengths;
+            this.numCycles = numCycles;
+        }
+
+        /**
+         * @return id of the cycle the chain of node ends in, -1 if it ends at -1
+         */
+        public int cycleId(int node) {
+            return cycleIds[node];
+        }
+
+        /**
+         * @return number of nodes from node on before the cycle, or before the
+         *         end of an acyclic chain. 0 for nodes on a cycle.
+         */
+        public int distance(int node) {
+            return distances[node];
+        }
+
+        public boolean isOnCycle(int node) {
+            return distances[node] == 0;
+        }
+
+        /**
+         * @return length of the cycle the chain of node ends in, 0 if none
+         */
+        public int cycleLength(int node) {
+            int id = cycleIds[node];
+            return id == -1 ? 0 : cycleLengths[id];
+        }
+
+        public int getNumOfCycles() {
+            return numCycles;
+        }
+    }
+
+    private static final byte UNVISITED = 0;
+    private static final byte ON_PATH = 1;
+    private static final byte DONE = 2;
+
+    /**
+     * Classify every node of a successor graph
+     *
+     * @param successors next node of every node, -1 to end a chain
+     * @return cycle id, distance to the cycle and cycle length of every node
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     *
+     *         Note : 1. Every node is pushed on the walk stack once. A walk ends
+     *         on a finished node, at -1 or on a node of the current walk, which
+     *         closes a new cycle. 2. The walk is then unwound, each node taking
+     *         the result of its successor.
+     */
+    public static Classification classify(int[] successors) {
+        int n = successors.length;
+        checkSuccessors(successors, 0, n);
+        int[] cycleIds = new int[n];
+        int[] distances = new int[n];
+        int[] cycleLengths = new int[n];
+        int numCycles = 0;
+        byte[] state = new byte[n];
+        int[] stack = new int[n];
+
+        for (int start = 0; start < n; start++) {
+            if (state[start] != UNVISITED) {
+                continue;
+            }
+            // 1. Walk until a finished node, the end or the current walk
+            int top = 0;
+            int v = start;
+            while (v != -1 && state[v] == UNVISITED) {
+                state[v] = ON_PATH;
+                // Stack position, replaced by the distance once done
+                distances[v] = top;
+                stack[top++] = v;
+                v = successors[v];
+            }
+
+            // 2. A node of the current walk closes a new cycle
+            if (v != -1 && state[v] == ON_PATH) {
+                int from = distances[v];
+                int id = v;
+                for (int i = from; i < top; i++) {
+                    id = Math.min(id, stack[i]);
+                }
+                for (int i = from; i < top; i++) {
+                    int u = stack[i];
+                    cycleIds[u] = id;
+                    distances[u] = 0;
+                    state[u] = DONE;
+                }
+                cycleLengths[id] = top - from;
+                numCycles++;
+                top = from;
+            }
+
+            // 3. Unwind the tail
+            while (top > 0) {
+                int u = stack[--top];
+                int next = successors[u];
+                cycleIds[u] = next == -1 ? -1 : cycleIds[next];
+                distances[u] = next == -1 ? 1 : distances[next] + 1;
+                state[u] = DONE;
+            }
+        }
+        return new Classification(cycleIds, distances, cycleLengths, numCycles);
+    }
+
+    /**
+     * Classify every node of a successor graph using all cores of the common
+     * fork/join pool
+     *
+     * @param successors next node of every node, -1 to end a chain
+     * @return cycle id, distance to the cycle and cycle length of every node
+     */
+    public static Classification parallelClassify(int[] successors) {
+        return parallelClassify(successors, ForkJoinPool.commonPool());
+    }
+
+    // Release/acquire access to the distances of tail nodes, published after
+    // their cycle id
+    private static final VarHandle INT_ELEMENT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Classify every node of a successor graph with fork/join tasks
+     *
+     * @param successors next node of every node, -1 to end a chain
+     * @param pool       to run the tasks in
+     * @return cycle id, distance to the cycle and cycle length of every node,
+     *         the same as classify
+     *
+     *         Time complexity : O(n) expected Space complexity : O(n)
+     *
+     *         Note : 1. Tail nodes are peeled off in parallel from the nodes
+     *         nobody points to : a node is peeled by the task that drops its in
+     *         degree to 0, the nodes left are exactly the cycle nodes. 2. Tasks
+     *         claim unclaimed cycle nodes and walk their cycle claiming nodes
+     *         until they reach a node claimed by another walk, which is always
+     *         the start of that walk. Each cycle is then a ring of segments,
+     *         resolved sequentially over the segment starts only. 3. Tail nodes
+     *         take their result from their successor, walks memoize so each
+     *         tail is walked about once.
+     */
+    public static Classification parallelClassify(int[] successors, ForkJoinPool pool) {
+        int n = successors.length;
+        int grain = Math.max(1 << 12, n / (pool.getParallelism() * 8));
+        AtomicIntegerArray inDegrees = new AtomicIntegerArray(n);
+
+        // 1. Count in degrees, then peel the tails starting from in degree 0
+        forRange(pool, n, grain, (from, to) -> {
+            checkSuccessors(successors, from, to);
+            for (int v = from; v < to; v++) {
+                if (successors[v] != -1) {
+                    inDegrees.getAndIncrement(successors[v]);
+                }
+            }
+        });
+        boolean[] seeds = new boolean[n];
+        forRange(pool, n, grain, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                seeds[v] = inDegrees.get(v) == 0;
+            }
+        });
+        forRange(pool, n, grain, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (!seeds[v]) {
+                    continue;
+                }
+                int next = successors[v];
+                while (next != -1 && inDegrees.decrementAndGet(next) == 0) {
+                    next = successors[next];
+                }
+            }
+        });
+
+        // 2. Claim cycle segments. owners holds segment start + 1, 0 if free
+        AtomicIntegerArray owners = new AtomicIntegerArray(n);
+        int[] segmentNext = new int[n];
+        int[] segmentLength = new int[n];
+        int[] segmentMin = new int[n];
+        forRange(pool, n, grain, (from, to) -> {
+            for (int start = from; start < to; start++) {
+                if (inDegrees.get(start) == 0 || owners.get(start) != 0
+                        || !owners.compareAndSet(start, 0, start + 1)) {
+                    continue;
+                }
+                int length = 1;
+                int min = start;
+                int v = successors[start];
+                while (v != start && owners.compareAndSet(v, 0, start + 1)) {
+                    length++;
+                    min = Math.min(min, v);
+                    v = successors[v];
+                }
+                segmentNext[start] = v == start ? start : owners.get(v) - 1;
+                segmentLength[start] = length;
+                segmentMin[start] = min;
+            }
+        });
+
+        // 3. Resolve the rings of segments into cycle ids and lengths
+        int[] cycleIds = new int[n];
+        int[] cycleLengths = new int[n];
+        boolean[] resolved = new boolean[n];
+        int numCycles = 0;
+        for (int start = 0; start < n; start++) {
+            if (owners.get(start) != start + 1 || resolved[start]) {
+                continue;
+            }
+            int id = segmentMin[start];
+            int length = 0;
+            int s = start;
+            do {
+                id = Math.min(id, segmentMin[s]);
+                length += segmentLength[s];
+                s = segmentNext[s];
+            } while (s != start);
+            do {
+                cycleIds[s] = id;
+                resolved[s] = true;
+                s = segmentNext[s];
+            } while (s != start);
+            cycleLengths[id] = length;
+            numCycles++;
+        }
+
+        // 4. Cycle nodes take the id of their segment
+        int[] distances = new int[n];
+        forRange(pool, n, grain, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int owner = owners.get(v);
+                if (owner != 0) {
+                    cycleIds[v] = cycleIds[owner - 1];
+                }
+            }
+        });
+
+        // 5. Tail nodes, a distance of 0 means not done yet
+        forRange(pool, n, grain, (from, to) -> {
+            int[] stack = new int[16];
+            for (int start = from; start < to; start++) {
+                if (owners.get(start) != 0 || (int) INT_ELEMENT.getAcquire(distances, start) != 0) {
+                    continue;
+                }
+                int top = 0;
+                int v = start;
+                while (v != -1 && owners.get(v) == 0 && (int) INT_ELEMENT.getAcquire(distances, v) == 0) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = v;
+                    v = successors[v];
+                }
+                int id = v == -1 ? -1 : cycleIds[v];
+                int distance = v == -1 ? 0 : distances[v];
+                while (top > 0) {
+                    int u = stack[--top];
+                    distance++;
+                    cycleIds[u] = id;
+                    INT_ELEMENT.setRelease(distances, u, distance);
+                }
+            }
+        });
+        return new Classification(cycleIds, distances, cycleLengths, numCycles);
+    }
+
+    private static void checkSuccessors(int[] successors, int from, int to) {
+        int n = successors.length;
+        for (int v = from; v < to; v++) {
+            if (successors[v] < -1 || successors[v] >= n) {
+                throw new IllegalArgumentException("successors[" + v + "] : " + successors[v]);
+            }
+        }
+    }
+
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private static void forRange(ForkJoinPool pool, int n, int grain, RangeBody body) {
+        pool.invoke(new RangeTask(0, n, grain, body));
+    }
+
+    static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int from;
+        final int to;
+        final int grain;
+        final RangeBody body;
+
+        RangeTask(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * External merge sort for int data that does not fit in the heap
+ *
+ * Values are collected in a fixed int[] buffer. Whenever it fills up it is
+ * sorted (and deduplicated if asked) and spilled to a temp file as a run. The
+ * runs are memory mapped and k-way merged back with a MergingIntIterator, so
+ * the heap used is the buffer plus O(number of runs).
+ *
+ * Files hold raw 32 bit ints in big endian order, the format of
+ * DataOutputStream.writeInt, with no header.
+ *
+ * Usage : add values, then call sortedIterator or writeSorted once, then
+ * close to unmap and delete the runs.
+ */
+public class ExternalIntSorter implements Closeable {
+
+    static final int IO_BUFFER_BYTES = 1 << 20;
+
+    // Runs are mapped in one piece
+    static final int MAX_BUFFERED_INTS = Integer.MAX_VALUE / Integer.BYTES;
+
+    private final int[] buffer;
+    private int buffered;
+    private final Path tempDir;
+    private final boolean removeDuplicates;
+    private final List<Path> runs = new ArrayList<>();
+    // Runs mapped for the merge, unmapped by close
+    private final List<MappedByteBuffer> mapped = new ArrayList<>();
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param maxBufferedInts  number of ints sorted in memory per run
+     * @param tempDir          directory for the runs, null for the default temp
+     *                         directory
+     * @param removeDuplicates true to output each distinct value once
+     */
+    public ExternalIntSorter(int maxBufferedInts, Path tempDir, boolean removeDuplicates) {
+        if (maxBufferedInts < 1 || maxBufferedInts > MAX_BUFFERED_INTS) {
+            throw new IllegalArgumentException("maxBufferedInts : " + maxBufferedInts);
+        }
+        this.buffer = new int[maxBufferedInts];
+        this.tempDir = tempDir;
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    /**
+     * Sort a file of ints into another file with a bounded heap
+     *
+     * @param input            file of ints
+     * @param output           file to write the sorted ints to
+     * @param maxBufferedInts  number of ints sorted in memory per run
+     * @param removeDuplicates true to write each distinct value once
+     * @return number of ints written
+     *
+     *         Time complexity : O(nlogn) Space complexity : O(maxBufferedInts)
+     */
+    public static long sortFile(Path input, Path output, int maxBufferedInts, boolean removeDuplicates)
+            throws IOException {
+        try (ExternalIntSorter sorter = new ExternalIntSorter(maxBufferedInts, null, removeDuplicates);
+                FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            if (channel.size() % Integer.BYTES != 0) {
+                throw new IOException("not a file of ints : " + input + " has " + channel.size() + " bytes");
+            }
+            ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+            int[] chunk = new int[IO_BUFFER_BYTES / Integer.BYTES];
+            while (channel.read(bytes) != -1 || bytes.position() > 0) {
+                bytes.flip();
+                IntBuffer ints = bytes.asIntBuffer();
+                int count = ints.remaining();
+                ints.get(chunk, 0, count);
+                sorter.add(chunk, 0, count);
+                bytes.position(count * Integer.BYTES);
+                bytes.compact();
+            }
+            return sorter.writeSorted(output);
+        }
+    }
+
+    /**
+     * Add a value
+     *
+     * @param val to add
+     *
+     *            Time complexity : O(1) amortized, a spill costs
+     *            O(maxBufferedInts log maxBufferedInts) Space complexity : O(1)
+     */
+    public void add(int val) throws IOException {
+        checkNotFinished();
+        if (buffered == buffer.length) {
+            spill();
+        }
+        buffer[buffered++] = val;
+    }
+
+    /**
+     * Add a range of values
+     *
+     * @param nums array
+     * @param from first index, inclusive
+     * @param to   last index, exclusive
+     */
+    public void add(int[] nums, int from, int to) throws IOException {
+        checkNotFinished();
+        while (from < to) {
+            if (buffered == buffer.length) {
+                spill();
+            }
+            int count = Math.min(to - from, buffer.length - buffered);
+            System.arraycopy(nums, from, buffer, buffered, count);
+            buffered += count;
+            from += count;
+        }
+    }
+
+    /**
+     * @return number of runs spilled to disk so far
+     */
+    public int getNumOfRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Finish adding and merge everything into one sorted stream
+     *
+     * @return iterator over all values in sorted order
+     *
+     *         Time complexity : O(nlog(runs)) Space complexity : O(runs)
+     */
+    public PrimitiveIterator.OfInt sortedIterator() throws IOException {
+        checkNotFinished();
+        finished = true;
+
+        PrimitiveIterator.OfInt merged;
+        if (runs.isEmpty()) {
+            // Everything fit in memory
+            int count = sortBuffer();
+            merged = Arrays.stream(buffer, 0, count).iterator();
+        } else {
+            if (buffered > 0) {
+                spill();
+            }
+            PrimitiveIterator.OfInt[] sources = new PrimitiveIterator.OfInt[runs.size()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = new RunIterator(mapRun(runs.get(i)));
+            }
+            merged = new MergingIntIterator(sources);
+        }
+        return removeDuplicates ? new DistinctIterator(merged) : merged;
+    }
+
+    /**
+     * Finish adding and write all values in sorted order to a file
+     *
+     * @param output file to write to, replaced if it exists
+     * @return number of ints written
+     */
+    public long writeSorted(Path output) throws IOException {
+        PrimitiveIterator.OfInt sorted = sortedIterator();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+            while (sorted.hasNext()) {
+                bytes.putInt(sorted.nextInt());
+                written++;
+                if (!bytes.hasRemaining()) {
+                    writeFully(channel, bytes);
+                }
+            }
+            writeFully(channel, bytes);
+        }
+        return written;
+    }
+
+    /**
+     * Unmap and delete the runs, iterators returned before fail afterwards
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        closed = true;
+        // Unmapped before the delete, which fails on Windows while a file is
+        // mapped
+        for (MappedByteBuffer run : mapped) {
+            OffHeapNodeStore.freeBuffer(run);
+        }
+        mapped.clear();
+        IOException failure = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        runs.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("sorter already finished");
+        }
+    }
+
+    /**
+     * Sort the buffer, removing duplicates if asked
+     *
+     * @return number of values in the sorted buffer
+     */
+    private int sortBuffer() {
+        Arrays.sort(buffer, 0, buffered);
+        return removeDuplicates ? ArrayUtils.removeAdjacentDuplicates(buffer, buffered) : buffered;
+    }
+
+    private void spill() throws IOException {
+        int count = sortBuffer();
+        Path run = tempDir == null ? Files.createTempFile("run", ".ints")
+                : Files.createTempFile(tempDir, "run", ".ints");
+        runs.add(run);
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) count * Integer.BYTES);
+            bytes.asIntBuffer().put(buffer, 0, count);
+            // The written pages stay in the page cache, only the mapping goes
+            OffHeapNodeStore.freeBuffer(bytes);
+        }
+        buffered = 0;
+    }
+
+    private IntBuffer mapRun(Path run) throws IOException {
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.add(bytes);
+            return bytes.asIntBuffer();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Iterator over a sorted run mapped in memory
+     */
+    class RunIterator implements PrimitiveIterator.OfInt {
+        private final IntBuffer ints;
+
+        RunIterator(IntBuffer ints) {
+            this.ints = ints;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ints.hasRemaining();
+        }
+
+        @Override
+        public int nextInt() {
+            // Reading an unmapped run would crash the JVM
+            if (closed) {
+                throw new IllegalStateException("sorter closed");
+            }
+            if (!ints.hasRemaining()) {
+                throw new NoSuchElementException();
+            }
+            return ints.get();
+        }
+    }
+
+    /**
+     * Skips values equal to the previous one of a sorted iterator
+     */
+    static class DistinctIterator implements PrimitiveIterator.OfInt {
+        private final PrimitiveIterator.OfInt sorted;
+        private boolean hasNext;
+        private int next;
+
+        DistinctIterator(PrimitiveIterator.OfInt sorted) {
+            this.sorted = sorted;
+            hasNext = sorted.hasNext();
+            if (hasNext) {
+                next = sorted.nextInt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            int val = next;
+            hasNext = false;
+            while (sorted.hasNext()) {
+                next = sorted.nextInt();
+                if (next != val) {
+                    hasNext = true;
+                    break;
+                }
+            }
+            return val;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.Arrays;
+
+/**
+ * Set of primitive ints using open addressing with linear probing
+ *
+ * Values are stored unboxed in a power of 2 sized int table, so adding an
+ * element never allocates (apart from growing the table). The value 0 marks a
+ * free slot in the table and is tracked separately.
+ */
+public class IntHashSet {
+
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Golden ratio constant used to spread the bits of the key
+    private static final int PHI = 0x9E3779B9;
+
+    private int[] table;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of elements that can be added without resizing
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize : " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Get the table size keeping the load factor at most 1/2
+     *
+     * @param expectedSize number of elements
+     * @return power of 2 table size
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    static int tableSizeFor(int expectedSize) {
+        long capacity = Math.max(MIN_CAPACITY, 2L * expectedSize);
+        if (capacity > MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) capacity - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        // A full sized table keeps one free slot to terminate probing
+        resizeThreshold = capacity == MAX_CAPACITY ? capacity - 1 : capacity >>> 1;
+    }
+
+    /**
+     * Home slot of a key : the high bits of a multiplicative hash
+     */
+    private int slot(int key) {
+        return (key * PHI) >>> shift;
+    }
+
+    /**
+     * Add a value to the set
+     *
+     * @param val to add
+     * @return true if val was not already present
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1) amortized
+     */
+    public boolean add(int val) {
+        if (val == FREE) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int[] t = table;
+        int m = mask;
+        int i = slot(val);
+        int cur;
+        while ((cur = t[i]) != FREE) {
+            if (cur == val) {
+                return false;
+            }
+            i = (i + 1) & m;
+        }
+        if (size - (containsZero ? 1 : 0) >= resizeThreshold) {
+            if (t.length == MAX_CAPACITY) {
+                throw new IllegalStateException("IntHashSet is full");
+            }
+            rehash(t.length << 1);
+            return add(val);
+        }
+        t[i] = val;
+        size++;
+        return true;
+    }
+
+    /**
+     * Check if a value is present in the set
+     *
+     * @param val to look for
+     * @return true if present
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    public boolean contains(int val) {
+        if (val == FREE) {
+            return containsZero;
+        }
+        int[] t = table;
+        int i = slot(val);
+        int cur;
+        while ((cur = t[i]) != FREE) {
+            if (cur == val) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a value from the set, shifting back the following entries of its
+     * probe sequence so that no tombstones are needed
+     *
+     * @param val to remove
+     * @return true if val was present
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    public boolean remove(int val) {
+        if (val == FREE) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int[] t = table;
+        int i = slot(val);
+        int cur;
+        while ((cur = t[i]) != val) {
+            if (cur == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Backward shift deletion
+        int gap = i;
+        int next = (gap + 1) & mask;
+        while ((cur = t[next]) != FREE) {
+            int home = slot(cur);
+            // Move cur into the gap if its home is not within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                t[gap] = cur;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        t[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        allocate(capacity);
+        for (int val : old) {
+            if (val != FREE) {
+                int i = slot(val);
+                while (table[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = val;
+            }
+        }
+    }
+
+    /**
+     * @return number of elements in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all elements, keeping the table for reuse
+     *
+     *         Time complexity : O(capacity) Space complexity : O(1)
+     */
+    public void clear() {
+        Arrays.fill(table, FREE);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * @return the elements of the set in no particular order
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int k = 0;
+        if (containsZero) {
+            result[k++] = 0;
+        }
+        for (int val : table) {
+            if (val != FREE) {
+                result[k++] = val;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,434 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded concurrent cache with int keys and LRU or LFU eviction
+ *
+ * The cache is split into lock striped segments chosen by key hash. Each
+ * segment indexes its entries with an IntObjectHashMap and keeps them on an
+ * intrusive doubly linked list built from LinkedList.DoublyLinkedListNode, so
+ * get, put and eviction are O(1) :
+ *
+ * LRU : one recency list, most recently used first, evicting from the end.
+ *
+ * LFU : a list of frequency nodes in increasing order, each holding the list
+ * of entries used that many times (most recent first). A hit moves the entry
+ * to the next frequency node, eviction takes the least recent entry of the
+ * lowest frequency.
+ *
+ * The bound is a total weight (1 per entry by default) split evenly between
+ * the segments. Hits, misses and evictions are counted.
+ *
+ * @param <V> type of the values
+ */
+public class IntKeyCache<V> {
+
+    public enum EvictionPolicy {
+        LRU, LFU
+    }
+
+    /**
+     * Weight of an entry against the cache bound
+     */
+    public interface Weigher<V> {
+        int weigh(int key, V value);
+    }
+
+    static final int STAT_SIZE = 0;
+    static final int STAT_WEIGHT = 1;
+    static final int STAT_HITS = 2;
+    static final int STAT_MISSES = 3;
+    static final int STAT_EVICTIONS = 4;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+
+    /**
+     * Cache bounded by number of entries
+     *
+     * @param policy  eviction policy
+     * @param maxSize max number of entries
+     */
+    public IntKeyCache(EvictionPolicy policy, int maxSize) {
+        this(policy, maxSize, Runtime.getRuntime().availableProcessors() * 4, (key, value) -> 1);
+    }
+
+    /**
+     * Cache bounded by total weight
+     *
+     * @param policy           eviction policy
+     * @param maxWeight        max total weight of the entries
+     * @param concurrencyLevel expected number of concurrent threads, rounded up
+     *                         to a power of 2 segments
+     * @param weigher          computing the weight of an entry
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public IntKeyCache(EvictionPolicy policy, long maxWeight, int concurrencyLevel, Weigher<V> weigher) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight : " + maxWeight);
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("concurrencyLevel : " + concurrencyLevel);
+        }
+        // Every segment must be able to hold at least one entry
+        int numSegments = (int) Math.min(Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1),
+                Long.highestOneBit(maxWeight));
+        segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long segmentWeight = maxWeight / numSegments + (i < maxWeight % numSegments ? 1 : 0);
+            segments[i] = new Segment<>(policy, segmentWeight, weigher);
+        }
+        segmentMask = numSegments - 1;
+    }
+
+    private Segment<V> segmentFor(int key) {
+        // Murmur3 finalizer, independent of the multiplicative hash used by the
+        // segment maps so that a segment's keys still spread over its table
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return segments[h & segmentMask];
+    }
+
+    /**
+     * Get the value of a key, counting a hit or a miss
+     *
+     * @param key to look up
+     * @return the cached value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    public V get(int key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Cache a value, evicting entries of its segment if over the bound
+     *
+     * @param key   of the entry
+     * @param value of the entry, not null
+     * @return the previous value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        return segmentFor(key).put(key, value);
+    }
+
+    /**
+     * Remove the entry of a key
+     *
+     * @param key to remove
+     * @return the removed value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    public V remove(int key) {
+        return segmentFor(key).remove(key);
+    }
+
+    /**
+     * Remove all entries, keeping the counters
+     */
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        return (int) sum(STAT_SIZE);
+    }
+
+    public long getWeight() {
+        return sum(STAT_WEIGHT);
+    }
+
+    public long getHitCount() {
+        return sum(STAT_HITS);
+    }
+
+    public long getMissCount() {
+        return sum(STAT_MISSES);
+    }
+
+    public long getEvictionCount() {
+        return sum(STAT_EVICTIONS);
+    }
+
+    private long sum(int stat) {
+        long sum = 0;
+        for (Segment<V> segment : segments) {
+            sum += segment.read(stat);
+        }
+        return sum;
+    }
+
+    /**
+     * Cache entry, its val is the key
+     */
+    static final class Entry<V> extends LinkedList.DoublyLinkedListNode {
+        V value;
+        int weight;
+        // LFU only
+        FrequencyNode frequency;
+
+        Entry(int key, V value, int weight) {
+            super(key);
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * LFU frequency node, its val is the use count and entries the sentinel of
+     * the entries used that many times
+     */
+    static final class FrequencyNode extends LinkedList.DoublyLinkedListNode {
+        final LinkedList.DoublyLinkedListNode entries = newSentinel();
+
+        FrequencyNode(int frequency) {
+            super(frequency);
+        }
+    }
+
+    /**
+     * Sentinel of an empty circular doubly linked list
+     */
+    static LinkedList.DoublyLinkedListNode newSentinel() {
+        LinkedList.DoublyLinkedListNode sentinel = new LinkedList.DoublyLinkedListNode(0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    static void linkAfter(LinkedList.DoublyLinkedListNode node, LinkedList.DoublyLinkedListNode newNode) {
+        newNode.prev = node;
+        newNode.next = node.next;
+        node.next.prev = newNode;
+        node.next = newNode;
+    }
+
+    static void unlink(LinkedList.DoublyLinkedListNode node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    static final class Segment<V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        final EvictionPolicy policy;
+        final long maxWeight;
+        final Weigher<V> weigher;
+        final IntObjectHashMap<Entry<V>> index = new IntObjectHashMap<>();
+        // LRU : entries, most recent first. LFU : frequency nodes, lowest first
+        final LinkedList.DoublyLinkedListNode sentinel = newSentinel();
+        long weight;
+        long hits;
+        long misses;
+        long evictions;
+
+        Segment(EvictionPolicy policy, long maxWeight, Weigher<V> weigher) {
+            this.policy = policy;
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+        }
+
+        V get(int key) {
+            lock();
+            try {
+                Entry<V> entry = index.get(key);
+                if (entry == null) {
+                    misses++;
+                    return null;
+                }
+                hits++;
+                touch(entry);
+                return entry.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        V put(int key, V value) {
+            int newWeight = weigher.weigh(key, value);
+            if (newWeight < 0) {
+                throw new IllegalArgumentException("negative weight : " + newWeight);
+            }
+            lock();
+            try {
+                Entry<V> entry = index.get(key);
+                V old = null;
+                if (newWeight > maxWeight) {
+                    // Can never fit, drop any previous value
+                    if (entry != null) {
+                        old = entry.value;
+                        removeEntry(entry);
+                    }
+                    return old;
+                }
+                if (entry != null) {
+                    old = entry.value;
+                    entry.value = value;
+                    weight += newWeight - entry.weight;
+                    entry.weight = newWeight;
+                    touch(entry);
+                } else {
+                    entry = new Entry<>(key, value, newWeight);
+                    index.put(key, entry);
+                    weight += newWeight;
+                    link(entry);
+                }
+                while (weight > maxWeight && evictOne(entry)) {
+                    evictions++;
+                }
+                return old;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(int key) {
+            lock();
+            try {
+                Entry<V> entry = index.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                removeEntry(entry);
+                return entry.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                index.clear();
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                weight = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        long read(int stat) {
+            lock();
+            try {
+                switch (stat) {
+                case STAT_SIZE:
+                    return index.size();
+                case STAT_WEIGHT:
+                    return weight;
+                case STAT_HITS:
+                    return hits;
+                case STAT_MISSES:
+                    return misses;
+                default:
+                    return evictions;
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Link a new entry as most recent, with a use count of 1 for LFU
+         */
+        private void link(Entry<V> entry) {
+            if (policy == EvictionPolicy.LRU) {
+                linkAfter(sentinel, entry);
+                return;
+            }
+            FrequencyNode first = sentinel.next == sentinel ? null : (FrequencyNode) sentinel.next;
+            if (first == null || first.val != 1) {
+                first = new FrequencyNode(1);
+                linkAfter(sentinel, first);
+            }
+            entry.frequency = first;
+            linkAfter(first.entries, entry);
+        }
+
+        /**
+         * Record a use of an entry
+         */
+        private void touch(Entry<V> entry) {
+            if (policy == EvictionPolicy.LRU) {
+                unlink(entry);
+                linkAfter(sentinel, entry);
+                return;
+            }
+            FrequencyNode current = entry.frequency;
+            FrequencyNode next = current.next == sentinel ? null : (FrequencyNode) current.next;
+            if (next == null || next.val != current.val + 1) {
+                next = new FrequencyNode(current.val + 1);
+                linkAfter(current, next);
+            }
+            unlink(entry);
+            entry.frequency = next;
+            linkAfter(next.entries, entry);
+            if (current.entries.next == current.entries) {
+                unlink(current);
+            }
+        }
+
+        private void removeEntry(Entry<V> entry) {
+            index.remove(entry.val);
+            weight -= entry.weight;
+            unlink(entry);
+            if (policy == EvictionPolicy.LFU) {
+                FrequencyNode frequency = entry.frequency;
+                if (frequency.entries.next == frequency.entries) {
+                    unlink(frequency);
+                }
+                entry.frequency = null;
+            }
+        }
+
+        /**
+         * Evict the least recent (LRU) or least frequent (LFU) entry
+         *
+         * @param keep entry that must not be evicted
+         * @return false if there was nothing else to evict
+         */
+        @SuppressWarnings("unchecked")
+        private boolean evictOne(Entry<V> keep) {
+            LinkedList.DoublyLinkedListNode victim = null;
+            if (policy == EvictionPolicy.LRU) {
+                victim = sentinel.prev;
+                if (victim == keep) {
+                    victim = victim.prev;
+                }
+                if (victim == sentinel) {
+                    return false;
+                }
+            } else {
+                for (LinkedList.DoublyLinkedListNode node = sentinel.next; node != sentinel; node = node.next) {
+                    LinkedList.DoublyLinkedListNode entries = ((FrequencyNode) node).entries;
+                    victim = entries.prev;
+                    if (victim == keep) {
+                        victim = victim.prev;
+                    }
+                    if (victim != entries) {
+                        break;
+                    }
+                    victim = null;
+                }
+                if (victim == null) {
+                    return false;
+                }
+            }
+            removeEntry((Entry<V>) victim);
+            return true;
+        }
+    }
+}
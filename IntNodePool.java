@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * Linked lists of ints stored as parallel int arrays
+ *
+ * A node is an index into the pool : vals[node] is its value and nexts[node]
+ * the index of the next node, NIL ends a list. Nodes are not objects, so a
+ * list of n nodes costs 8n bytes, is never traced by the GC, and freed nodes
+ * are recycled through a free list threaded over nexts.
+ *
+ * The operations, shared with OffHeapNodeStore through IntNodeStore, mirror
+ * LinkedList but take and return node indices. Several lists may live in the
+ * same pool. A pool is not thread safe.
+ */
+public final class IntNodePool extends IntNodeStore {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] vals;
+    private int[] nexts;
+    // Nodes [0, used) have been handed out at least once
+    private int used;
+    private int freeHead = NIL;
+    private int numFree;
+
+    public IntNodePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of nodes that can be allocated without growing
+     */
+    public IntNodePool(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity : " + capacity);
+        }
+        vals = new int[capacity];
+        nexts = new int[capacity];
+    }
+
+    /**
+     * Allocate a node, reusing a freed one if possible
+     *
+     * @param val of the node
+     * @return the new node, its next is NIL
+     *
+     *         Time complexity : O(1) amortized Space complexity : O(1)
+     */
+    @Override
+    public int allocate(int val) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = nexts[node];
+            numFree--;
+        } else {
+            if (used == vals.length) {
+                grow();
+            }
+            node = used++;
+        }
+        vals[node] = val;
+        nexts[node] = NIL;
+        return node;
+    }
+
+    private void grow() {
+        if (vals.length == MAX_CAPACITY) {
+            throw new IllegalStateException("IntNodePool is full");
+        }
+        int capacity = (int) Math.min(MAX_CAPACITY, Math.max(DEFAULT_CAPACITY, 2L * vals.length));
+        vals = Arrays.copyOf(vals, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+    }
+
+    /**
+     * Return a single node to the pool
+     *
+     * @param node to free, must not be used afterwards
+     *
+     *             Time complexity : O(1) Space complexity : O(1)
+     */
+    @Override
+    public void free(int node) {
+        nexts[node] = freeHead;
+        freeHead = node;
+        numFree++;
+    }
+
+    /**
+     * @return number of nodes currently allocated
+     */
+    @Override
+    public int getNumOfAllocatedNodes() {
+        return used - numFree;
+    }
+
+    @Override
+    public int val(int node) {
+        return vals[node];
+    }
+
+    @Override
+    public int next(int node) {
+        return nexts[node];
+    }
+
+    @Override
+    public void setVal(int node, int val) {
+        vals[node] = val;
+    }
+
+    @Override
+    public void setNext(int node, int next) {
+        nexts[node] = next;
+    }
+}
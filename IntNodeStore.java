@@ -0,0 +1,435 @@
+/**
+ * Linked lists of ints whose nodes are int indices into a store
+ *
+ * The LinkedList algorithms are written once here against the node accessors,
+ * and the stores only decide where a node's val and next live : IntNodePool in
+ * parallel int arrays on the heap, OffHeapNodeStore in direct memory chunks.
+ * The stores are final classes, so the JIT sees at most two receivers at every
+ * accessor call and inlines them.
+ *
+ * NIL ends a list. Several lists may live in the same store.
+ */
+public abstract class IntNodeStore {
+
+    public static final int NIL = -1;
+
+    public abstract int val(int node);
+
+    public abstract int next(int node);
+
+    public abstract void setVal(int node, int val);
+
+    public abstract void setNext(int node, int next);
+
+    /**
+     * Allocate a node, reusing a freed one if possible
+     *
+     * @param val of the node
+     * @return the new node, its next is NIL
+     *
+     *         Time complexity : O(1) amortized Space complexity : O(1)
+     */
+    public abstract int allocate(int val);
+
+    /**
+     * Return a single node to the store
+     *
+     * @param node to free, must not be used afterwards
+     *
+     *             Time complexity : O(1) Space complexity : O(1)
+     */
+    public abstract void free(int node);
+
+    /**
+     * @return number of nodes currently allocated
+     */
+    public abstract int getNumOfAllocatedNodes();
+
+    /**
+     * Return all nodes of a list to the store
+     *
+     * @param head of the list to free
+     *
+     *             Time complexity : O(n) Space complexity : O(1)
+     */
+    public void freeList(int head) {
+        while (head != NIL) {
+            int next = next(head);
+            free(head);
+            head = next;
+        }
+    }
+
+    /**
+     * Build a list from an array
+     *
+     * @param nums values in list order
+     * @return head of the list, NIL if nums is empty
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int fromArray(int[] nums) {
+        int head = NIL;
+        int tail = NIL;
+        for (int num : nums) {
+            int node = allocate(num);
+            if (head == NIL) {
+                head = node;
+            } else {
+                setNext(tail, node);
+            }
+            tail = node;
+        }
+        return head;
+    }
+
+    /**
+     * Copy the values of a list into an array
+     *
+     * @param head of the list
+     * @return values in list order
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int[] toArray(int head) {
+        int[] nums = new int[getNumOfNodes(head)];
+        int i = 0;
+        for (int cur = head; cur != NIL; cur = next(cur)) {
+            nums[i++] = val(cur);
+        }
+        return nums;
+    }
+
+    /**
+     * Get the number of nodes in the list
+     *
+     * @param head of the list with n nodes
+     * @return num of nodes n
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int getNumOfNodes(int head) {
+        int numOfNodes = 0;
+        for (int cur = head; cur != NIL; cur = next(cur)) {
+            numOfNodes++;
+        }
+        return numOfNodes;
+    }
+
+    /**
+     * Insert a node after a given node
+     *
+     * @param node      after which a new node is to be inserted
+     * @param insertVal value to insert after node
+     * @return the new node
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public int insertAfter(int node, int insertVal) {
+        int newNode = allocate(insertVal);
+        setNext(newNode, next(node));
+        setNext(node, newNode);
+        return newNode;
+    }
+
+    /**
+     * Delete and free the node after the given node
+     *
+     * @param node before the node to be deleted
+     * @param head of the list
+     * @return the head of the list after deleting the node
+     *
+     *         Note : 1. If you want to delete the head, pass in NIL for node
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public int deleteNode(int node, int head) {
+        if (node == NIL) {
+            int next = next(head);
+            free(head);
+            return next;
+        }
+        int deleted = next(node);
+        if (deleted != NIL) {
+            setNext(node, next(deleted));
+            free(deleted);
+        }
+        return head;
+    }
+
+    /**
+     * Reverse the given list
+     *
+     * @param head of the list
+     * @return head of the reversed list, the old head is its tail
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int reverseLinkedList(int head) {
+        int prev = NIL;
+        int cur = head;
+        while (cur != NIL) {
+            int next = next(cur);
+            setNext(cur, prev);
+            prev = cur;
+            cur = next;
+        }
+        return prev;
+    }
+
+    /**
+     * Split the list into 2 parts where first part contains k nodes
+     *
+     * @param head of the list, stays the head of the first part
+     * @param k    nodes in first part
+     * @return head of the second part, head itself if k is 0
+     *
+     *         Time complexity : O(k) Space complexity : O(1)
+     */
+    public int splitList(int head, int k) {
+        if (k <= 0 || head == NIL) {
+            return k <= 0 ? head : NIL;
+        }
+        int prev = head;
+        for (int i = 1; i < k && next(prev) != NIL; i++) {
+            prev = next(prev);
+        }
+        int rest = next(prev);
+        setNext(prev, NIL);
+        return rest;
+    }
+
+    /**
+     * Get the k-th node (1 based)
+     *
+     * @param head of the list
+     * @param k
+     * @return the k-th node, NIL if the list is shorter
+     *
+     *         Time complexity : O(k) Space complexity : O(1)
+     */
+    public int getKthNode(int head, int k) {
+        if (k < 1) {
+            return NIL;
+        }
+        int node = head;
+        for (int i = 1; i < k && node != NIL; i++) {
+            node = next(node);
+        }
+        return node;
+    }
+
+    /**
+     * Get the k-th last node (1 based)
+     *
+     * @param head of the list
+     * @param k
+     * @return the k-th last node, NIL if the list is shorter
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int getKthLastNode(int head, int k) {
+        int fast = getKthNode(head, k);
+        if (fast == NIL) {
+            return NIL;
+        }
+        int slow = head;
+        while (next(fast) != NIL) {
+            fast = next(fast);
+            slow = next(slow);
+        }
+        return slow;
+    }
+
+    /**
+     * Get the mid node (2nd mid node if even number of nodes)
+     *
+     * @param head of the list
+     * @return the mid node
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int getMidNode(int head) {
+        int slow = head;
+        int fast = head;
+        while (fast != NIL && next(fast) != NIL) {
+            slow = next(slow);
+            fast = next(next(fast));
+        }
+        return slow;
+    }
+
+    /**
+     * Split list to 2 equal parts
+     *
+     * @param head of the list, stays the head of the first part
+     * @return head of the second part, NIL if the list has less than 2 nodes
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int splitListToHalves(int head) {
+        int numOfNodes = getNumOfNodes(head);
+        if (numOfNodes < 2) {
+            return NIL;
+        }
+        return splitList(head, numOfNodes / 2);
+    }
+
+    /**
+     * Given 2 sorted lists merge them into a sorted list, ties are taken from
+     * the first list
+     *
+     * @param l1 head of list 1 of size m
+     * @param l2 head of list 2 of size n
+     * @return head of sorted merged list
+     *
+     *         Time complexity : O(m + n) Space complexity : O(1)
+     */
+    public int mergeTwoSortedLists(int l1, int l2) {
+        if (l1 == NIL || l2 == NIL) {
+            return l1 == NIL ? l2 : l1;
+        }
+        int head = val(l2) < val(l1) ? l2 : l1;
+        mergeNonEmpty(l1, l2);
+        return head;
+    }
+
+    /**
+     * Merge 2 non empty sorted lists, ties are taken from the first list
+     *
+     * @return last node linked by the merge, its next is the rest of the
+     *         longer list
+     */
+    private int mergeNonEmpty(int l1, int l2) {
+        int tail;
+        if (val(l2) < val(l1)) {
+            tail = l2;
+            l2 = next(l2);
+        } else {
+            tail = l1;
+            l1 = next(l1);
+        }
+        while (l1 != NIL && l2 != NIL) {
+            if (val(l2) < val(l1)) {
+                setNext(tail, l2);
+                tail = l2;
+                l2 = next(l2);
+            } else {
+                setNext(tail, l1);
+                tail = l1;
+                l1 = next(l1);
+            }
+        }
+        setNext(tail, l1 != NIL ? l1 : l2);
+        return tail;
+    }
+
+    private int lastNode(int head) {
+        if (head == NIL) {
+            return NIL;
+        }
+        while (next(head) != NIL) {
+            head = next(head);
+        }
+        return head;
+    }
+
+    /**
+     * Sort a list with a stable bottom-up merge sort
+     *
+     * @param head of the list
+     * @return head of the sorted list
+     *
+     *         Time complexity : O(nlogn) Space complexity : O(1)
+     */
+    public int mergeSort(int head) {
+        int length = getNumOfNodes(head);
+        for (int width = 1; width < length; width <<= 1) {
+            int rest = head;
+            int newHead = NIL;
+            int tail = NIL;
+            while (rest != NIL) {
+                // Merge the next 2 sublists of width nodes
+                int left = rest;
+                int right = splitList(left, width);
+                rest = splitList(right, width);
+                int merged = left;
+                int last = left;
+                if (right != NIL) {
+                    merged = val(right) < val(left) ? right : left;
+                    last = mergeNonEmpty(left, right);
+                }
+                if (newHead == NIL) {
+                    newHead = merged;
+                } else {
+                    setNext(tail, merged);
+                }
+                // Only the rest of one sublist is left to walk
+                tail = lastNode(last);
+            }
+            head = newHead;
+            if (width >= length - width) {
+                // This pass merged the whole list, doubling could overflow
+                break;
+            }
+        }
+        return head;
+    }
+
+    /**
+     * Detect if a loop exists in the list
+     *
+     * @param head of the list
+     * @return NIL if no loop, else meeting point of slow and fast pointers
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int detectLoop(int head) {
+        int slow = head;
+        int fast = head;
+        while (fast != NIL && next(fast) != NIL) {
+            slow = next(slow);
+            fast = next(next(fast));
+            if (fast == slow) {
+                return fast;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * Given a list with a loop, find the first node of the loop
+     *
+     * @param head         of the list with a loop
+     * @param meetingPoint of the slow and fast pointers
+     * @return first node of the loop
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public int findFirstNodeOfCycle(int head, int meetingPoint) {
+        int cur = head;
+        while (cur != meetingPoint) {
+            cur = next(cur);
+            meetingPoint = next(meetingPoint);
+        }
+        return cur;
+    }
+
+    /**
+     * Given a list with a loop, break the loop
+     *
+     * @param loopStart first node of the loop
+     *
+     *                  Time complexity : O(n) Space complexity : O(1)
+     */
+    public void breakLoop(int loopStart) {
+        if (loopStart == NIL) {
+            return;
+        }
+        int cur = loopStart;
+        while (next(cur) != loopStart) {
+            cur = next(cur);
+        }
+        setNext(cur, NIL);
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+/**
+ * Map from primitive int keys to objects using open addressing with linear
+ * probing
+ *
+ * Keys are stored unboxed in a power of 2 sized int table next to the values,
+ * a null value marks a free slot so null values are not allowed.
+ *
+ * @param <V> type of the values
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Golden ratio constant used to spread the bits of the key
+    private static final int PHI = 0x9E3779B9;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+
+    public IntObjectHashMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize number of entries that can be added without resizing
+     */
+    public IntObjectHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize : " + expectedSize);
+        }
+        allocate(IntHashSet.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        // A full sized table keeps one free slot to terminate probing
+        resizeThreshold = capacity == MAX_CAPACITY ? capacity - 1 : capacity >>> 1;
+    }
+
+    private int slot(int key) {
+        return (key * PHI) >>> shift;
+    }
+
+    /**
+     * Get the value of a key
+     *
+     * @param key to look up
+     * @return the value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = slot(key);
+        Object value;
+        while ((value = values[i]) != null) {
+            if (keys[i] == key) {
+                return (V) value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Associate a value with a key
+     *
+     * @param key   of the entry
+     * @param value of the entry, not null
+     * @return the previous value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1) amortized
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        int i = slot(key);
+        Object old;
+        while ((old = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) old;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size >= resizeThreshold) {
+            if (keys.length == MAX_CAPACITY) {
+                throw new IllegalStateException("IntObjectHashMap is full");
+            }
+            rehash(keys.length << 1);
+            return put(key, value);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove the entry of a key, shifting back the following entries of its
+     * probe sequence so that no tombstones are needed
+     *
+     * @param key to remove
+     * @return the removed value, null if absent
+     *
+     *         Time complexity : O(1) expected Space complexity : O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = slot(key);
+        Object removed;
+        while ((removed = values[i]) != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (removed == null) {
+            return null;
+        }
+        // Backward shift deletion
+        int gap = i;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = slot(keys[next]);
+            // Move the entry into the gap if its home is not within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        return (V) removed;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries, keeping the table for reuse
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
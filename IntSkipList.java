@@ -0,0 +1,216 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sorted list of ints with a skip list index
+ *
+ * Every node is on level 0 and on each level above with probability 1/2, so
+ * a search skips most of the list from the top level down : insert, search and
+ * delete are O(logn) expected instead of the O(n) walk of
+ * LinkedList.insertIntoSortedCircularList. Duplicates are kept, in insertion
+ * order.
+ *
+ * Not thread safe, see ConcurrentIntSkipList for multiple writers.
+ */
+public class IntSkipList {
+
+    static final int MAX_LEVEL = 32;
+
+    static final class Node {
+        final int val;
+        final Node[] next;
+
+        Node(int val, int height) {
+            this.val = val;
+            this.next = new Node[height];
+        }
+    }
+
+    // Sentinel with a tower of MAX_LEVEL, its value is never compared
+    private final Node head = new Node(0, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+    private int seed = 0x2545F491;
+
+    // Predecessors found by the last search, reused to avoid allocation
+    private final Node[] update = new Node[MAX_LEVEL];
+
+    /**
+     * Random tower height, geometric with p = 1/2 (xorshift generator)
+     */
+    int randomLevel() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return 1 + Integer.numberOfTrailingZeros(x | (1 << (MAX_LEVEL - 1)));
+    }
+
+    /**
+     * Insert a value after all equal values
+     *
+     * @param val to insert
+     *
+     *            Time complexity : O(logn) expected Space complexity : O(1)
+     *            expected
+     */
+    public void insert(int val) {
+        Node cur = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (cur.next[i] != null && cur.next[i].val <= val) {
+                cur = cur.next[i];
+            }
+            update[i] = cur;
+        }
+
+        int height = randomLevel();
+        if (height > level) {
+            for (int i = level; i < height; i++) {
+                update[i] = head;
+            }
+            level = height;
+        }
+
+        Node node = new Node(val, height);
+        for (int i = 0; i < height; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+        }
+        size++;
+    }
+
+    /**
+     * Remove the first occurrence of a value
+     *
+     * @param val to remove
+     * @return true if val was present
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(1)
+     */
+    public boolean remove(int val) {
+        Node cur = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (cur.next[i] != null && cur.next[i].val < val) {
+                cur = cur.next[i];
+            }
+            update[i] = cur;
+        }
+
+        Node node = cur.next[0];
+        if (node == null || node.val != val) {
+            return false;
+        }
+        for (int i = 0; i < node.next.length; i++) {
+            update[i].next[i] = node.next[i];
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Get the first node with a value >= val
+     *
+     * @param val lower bound
+     * @return the node, null if all values are smaller
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(1)
+     */
+    Node lowerBound(int val) {
+        Node cur = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (cur.next[i] != null && cur.next[i].val < val) {
+                cur = cur.next[i];
+            }
+        }
+        return cur.next[0];
+    }
+
+    /**
+     * Check if a value is present
+     *
+     * @param val to look for
+     * @return true if present
+     *
+     *         Time complexity : O(logn) expected Space complexity : O(1)
+     */
+    public boolean contains(int val) {
+        Node node = lowerBound(val);
+        return node != null && node.val == val;
+    }
+
+    /**
+     * Count the values in a range
+     *
+     * @param from smallest value, inclusive
+     * @param to   largest value, exclusive
+     * @return number of values in [from, to)
+     *
+     *         Time complexity : O(logn + k) Space complexity : O(1)
+     */
+    public int countInRange(int from, int to) {
+        int count = 0;
+        for (Node node = lowerBound(from); node != null && node.val < to; node = node.next[0]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return iterator over all values in increasing order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new RangeIterator(head.next[0], Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Scan the values in a range
+     *
+     * @param from smallest value, inclusive
+     * @param to   largest value, exclusive
+     * @return iterator over the values in [from, to) in increasing order
+     *
+     *         Time complexity : O(logn) to start, O(1) per value Space complexity
+     *         : O(1)
+     */
+    public PrimitiveIterator.OfInt range(int from, int to) {
+        return new RangeIterator(lowerBound(from), to, false);
+    }
+
+    static class RangeIterator implements PrimitiveIterator.OfInt {
+        private Node next;
+        private final int to;
+        private final boolean unbounded;
+
+        RangeIterator(Node first, int to, boolean unbounded) {
+            this.next = first;
+            this.to = to;
+            this.unbounded = unbounded;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null && (unbounded || next.val < to);
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int val = next.val;
+            next = next.next[0];
+            return val;
+        }
+    }
+}
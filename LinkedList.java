@@ -1,3 +1,6 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 public class LinkedList {
 
     // No one should create an object
@@ -416,27 +419,100 @@ public class LinkedList {
      *         Time complexity : O(m + n) Space complexity : O(1)
      */
     public static ListNode mergeTwoSortedLists(ListNode l1, ListNode l2) {
-        ListNode[] result = new ListNode[] { null, null };
-        ListNode[] parts;
+        if (l1 == null) {
+            return l2;
+        }
+        if (l2 == null) {
+            return l1;
+        }
+
+        // Relink nodes directly, ties are taken from l1 to keep the merge stable
+        ListNode head;
+        if (l2.val < l1.val) {
+            head = l2;
+            l2 = l2.next;
+        } else {
+            head = l1;
+            l1 = l1.next;
+        }
+        ListNode tail = head;
         while (l1 != null && l2 != null) {
-            if (l1.val < l2.val) {
-                parts = extractFirstNode(l1);
-                appendNodeToResult(result, parts[0]);
-                l1 = parts[1];
+            if (l2.val < l1.val) {
+                tail.next = l2;
+                tail = l2;
+                l2 = l2.next;
             } else {
-                parts = extractFirstNode(l2);
-                appendNodeToResult(result, parts[0]);
-                l2 = parts[1];
+                tail.next = l1;
+                tail = l1;
+                l1 = l1.next;
             }
         }
+        tail.next = (l1 != null) ? l1 : l2;
+
+        return head;
+    }
 
-        if (l1 != null) {
-            appendNodeToResult(result, l1);
-        } else if (l2 != null) {
-            appendNodeToResult(result, l2);
+    /**
+     * Given k sorted lists merge them into a sorted list
+     * 
+     * @param lists heads of k sorted lists with n nodes in total
+     * @return head of sorted merged list
+     * 
+     *         Note : 1. A loser tree picks the next node, nodes are relinked
+     *         without allocation and ties keep the order of the lists. 2. The
+     *         rest of the last non empty list is appended as is.
+     * 
+     *         Time complexity : O(nlogk) Space complexity : O(k)
+     */
+    public static ListNode mergeKSortedLists(ListNode[] lists) {
+        int k = lists.length;
+        if (k == 0) {
+            return null;
         }
 
-        return result[0];
+        ListNode[] cur = lists.clone();
+        LoserTree tree = new LoserTree(k);
+        int remaining = 0;
+        for (int i = 0; i < k; i++) {
+            if (cur[i] == null) {
+                tree.exhaust(i);
+            } else {
+                tree.set(i, cur[i].val);
+                remaining++;
+            }
+        }
+        tree.build();
+
+        ListNode head = null;
+        ListNode tail = null;
+        while (remaining > 1) {
+            int winner = tree.winner();
+            ListNode node = cur[winner];
+            if (head == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            cur[winner] = node.next;
+            if (node.next == null) {
+                tree.exhaust(winner);
+                remaining--;
+            } else {
+                tree.set(winner, node.next.val);
+            }
+            tree.replay(winner);
+        }
+
+        if (remaining == 1) {
+            ListNode rest = cur[tree.winner()];
+            if (head == null) {
+                head = rest;
+            } else {
+                tail.next = rest;
+            }
+        }
+        return head;
     }
 
     /**
@@ -698,6 +774,279 @@ public class LinkedList {
         return mergeTwoSortedLists(halves[0], halves[1]);
     }
 
+    // Runs shorter than this are extended by insertion before merging
+    static final int MIN_RUN = 8;
+
+    // Enough for any list length given the run length invariants below
+    static final int MAX_PENDING_RUNS = 85;
+
+    /**
+     * Sort a linked list with a stable, iterative natural merge sort
+     * 
+     * @param head of linked list
+     * @return head of the sorted list
+     * 
+     *         Note : 1. Ascending and strictly descending runs already in the
+     *         list are detected and kept, so partially ordered lists sort in
+     *         near linear time. 2. Pending runs are merged following the TimSort
+     *         invariants, no node or array is allocated per node.
+     * 
+     *         Time complexity : O(nlogn) Space complexity : O(1)
+     */
+    public static ListNode naturalMergeSort(ListNode head) {
+        if (head == null || head.next == null) {
+            return head;
+        }
+
+        ListNode[] runs = new ListNode[MAX_PENDING_RUNS];
+        int[] lengths = new int[MAX_PENDING_RUNS];
+        int numRuns = 0;
+        ListNode rest = head;
+
+        while (rest != null) {
+            // 1. Cut the next natural run, reversing it if strictly descending
+            ListNode runHead = rest;
+            ListNode runTail = rest;
+            int len = 1;
+            if (rest.next != null && rest.next.val < rest.val) {
+                rest = rest.next;
+                runTail.next = null;
+                while (rest != null && rest.val < runHead.val) {
+                    ListNode next = rest.next;
+                    rest.next = runHead;
+                    runHead = rest;
+                    rest = next;
+                    len++;
+                }
+            } else {
+                while (runTail.next != null && runTail.next.val >= runTail.val) {
+                    runTail = runTail.next;
+                    len++;
+                }
+                rest = runTail.next;
+                runTail.next = null;
+            }
+
+            // 2. Extend a short run to MIN_RUN by stable insertion
+            while (len < MIN_RUN && rest != null) {
+                ListNode node = rest;
+                rest = rest.next;
+                if (node.val >= runTail.val) {
+                    runTail.next = node;
+                    node.next = null;
+                    runTail = node;
+                } else if (node.val < runHead.val) {
+                    node.next = runHead;
+                    runHead = node;
+                } else {
+                    ListNode prev = runHead;
+                    while (prev.next.val <= node.val) {
+                        prev = prev.next;
+                    }
+                    node.next = prev.next;
+                    prev.next = node;
+                }
+                len++;
+            }
+
+            // 3. Push the run and merge while the invariants are violated
+            runs[numRuns] = runHead;
+            lengths[numRuns] = len;
+            numRuns++;
+            numRuns = mergeCollapse(runs, lengths, numRuns, false);
+        }
+
+        mergeCollapse(runs, lengths, numRuns, true);
+        return runs[0];
+    }
+
+    /**
+     * Merge pending runs until lengths[i - 2] > lengths[i - 1] + lengths[i] and
+     * lengths[i - 1] > lengths[i] hold, or until a single run is left if forced
+     * 
+     * @param runs    heads of pending runs, in list order
+     * @param lengths of pending runs
+     * @param numRuns number of pending runs
+     * @param force   merge all runs
+     * @return number of pending runs after merging
+     * 
+     *         Time complexity : O(length of merged runs) Space complexity : O(1)
+     */
+    static int mergeCollapse(ListNode[] runs, int[] lengths, int numRuns, boolean force) {
+        while (numRuns > 1) {
+            int k = numRuns - 2;
+            if (force) {
+                if (k > 0 && lengths[k - 1] < lengths[k + 1]) {
+                    k--;
+                }
+            } else if ((k > 0 && lengths[k - 1] <= lengths[k] + lengths[k + 1])
+                    || (k > 1 && lengths[k - 2] <= lengths[k - 1] + lengths[k])) {
+                if (lengths[k - 1] < lengths[k + 1]) {
+                    k--;
+                }
+            } else if (lengths[k] > lengths[k + 1]) {
+                break;
+            }
+
+            // Merge runs k and k + 1, the earlier run goes first for stability
+            runs[k] = mergeTwoSortedLists(runs[k], runs[k + 1]);
+            lengths[k] += lengths[k + 1];
+            if (k + 2 < numRuns) {
+                runs[k + 1] = runs[k + 2];
+                lengths[k + 1] = lengths[k + 2];
+            }
+            numRuns--;
+            runs[numRuns] = null;
+        }
+        return numRuns;
+    }
+
+    // Sublists up to this size are sorted sequentially by parallel sorts
+    static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Sort a linked list using all cores of the common fork/join pool
+     * 
+     * @param head of linked list
+     * @return head of the sorted list
+     * 
+     *         Time complexity : O(nlogn) Space complexity : O(logn)
+     */
+    public static ListNode parallelMergeSort(ListNode head) {
+        return parallelMergeSort(head, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sort a linked list with fork/join tasks : the list is split in halves
+     * until a part has at most sequentialThreshold nodes, parts are sorted with
+     * naturalMergeSort and merged back while joining
+     * 
+     * @param head                of linked list
+     * @param sequentialThreshold max nodes of a part sorted by a single task
+     * @param pool                to run the tasks in
+     * @return head of the sorted list
+     * 
+     *         Time complexity : O(nlogn) Space complexity : O(logn)
+     */
+    public static ListNode parallelMergeSort(ListNode head, int sequentialThreshold, ForkJoinPool pool) {
+        if (sequentialThreshold < 1) {
+            throw new IllegalArgumentException("sequentialThreshold : " + sequentialThreshold);
+        }
+        if (head == null || head.next == null) {
+            return head;
+        }
+        int numOfNodes = getNumOfNodes(head);
+        if (numOfNodes <= sequentialThreshold) {
+            return naturalMergeSort(head);
+        }
+        return pool.invoke(new ParallelMergeSortTask(head, numOfNodes, sequentialThreshold));
+    }
+
+    static class ParallelMergeSortTask extends RecursiveTask<ListNode> {
+        private static final long serialVersionUID = 1L;
+
+        final ListNode head;
+        final int numOfNodes;
+        final int sequentialThreshold;
+
+        ParallelMergeSortTask(ListNode head, int numOfNodes, int sequentialThreshold) {
+            this.head = head;
+            this.numOfNodes = numOfNodes;
+            this.sequentialThreshold = sequentialThreshold;
+        }
+
+        @Override
+        protected ListNode compute() {
+            if (numOfNodes <= sequentialThreshold) {
+                return naturalMergeSort(head);
+            }
+
+            // 1. Divide list into 2 halves, the length is known so no fast pointer
+            int firstHalf = numOfNodes / 2;
+            ListNode[] halves = splitList(head, firstHalf);
+
+            // 2. Sort the first half in another task and the second one here
+            ParallelMergeSortTask left = new ParallelMergeSortTask(halves[0], firstHalf, sequentialThreshold);
+            left.fork();
+            ListNode right = new ParallelMergeSortTask(halves[1], numOfNodes - firstHalf, sequentialThreshold)
+                    .compute();
+
+            // 3. Merge the sorted halves
+            return mergeTwoSortedLists(left.join(), right);
+        }
+    }
+
+    static final int RADIX_BITS = 8;
+    static final int RADIX = 1 << RADIX_BITS;
+    static final int RADIX_MASK = RADIX - 1;
+
+    /**
+     * Sort a linked list with an LSD radix sort on 8 bit digits
+     * 
+     * @param head of linked list
+     * @return head of the sorted list
+     * 
+     *         Note : 1. Nodes are distributed into buckets and relinked, no node
+     *         is allocated and the sort is stable. 2. Digits where all values
+     *         agree are skipped. 3. The sign bit is flipped on the last digit so
+     *         negative values come first.
+     * 
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public static ListNode radixSort(ListNode head) {
+        if (head == null || head.next == null) {
+            return head;
+        }
+
+        // 1. Find the bits that differ between any two values
+        int first = head.val;
+        int diff = 0;
+        for (ListNode cur = head.next; cur != null; cur = cur.next) {
+            diff |= cur.val ^ first;
+        }
+
+        // Bucket lists, reused across passes
+        ListNode[] heads = new ListNode[RADIX];
+        ListNode[] tails = new ListNode[RADIX];
+
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            if (((diff >>> shift) & RADIX_MASK) == 0) {
+                continue;
+            }
+            int flip = (shift + RADIX_BITS == Integer.SIZE) ? (RADIX >>> 1) : 0;
+
+            // 2. Distribute nodes to the buckets of their digit, keeping order
+            for (ListNode cur = head; cur != null; cur = cur.next) {
+                int digit = ((cur.val >>> shift) & RADIX_MASK) ^ flip;
+                if (heads[digit] == null) {
+                    heads[digit] = cur;
+                } else {
+                    tails[digit].next = cur;
+                }
+                tails[digit] = cur;
+            }
+
+            // 3. Relink the buckets in digit order
+            head = null;
+            ListNode tail = null;
+            for (int digit = 0; digit < RADIX; digit++) {
+                if (heads[digit] != null) {
+                    if (head == null) {
+                        head = heads[digit];
+                    } else {
+                        tail.next = heads[digit];
+                    }
+                    tail = tails[digit];
+                    heads[digit] = null;
+                    tails[digit] = null;
+                }
+            }
+            tail.next = null;
+        }
+
+        return head;
+    }
+
     /**
      * Split list to 2 equal parts
      * 
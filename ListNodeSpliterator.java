@@ -0,0 +1,196 @@
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the values of a ListNode chain, the source of IntStreams
+ * over linked lists
+ *
+ * A chain cannot be split without walking it, so by default trySplit copies a
+ * batch of values off the front into an array, growing the batch by BATCH_UNIT
+ * at every split as java.util.LinkedList does. Only the batches handed to
+ * other threads are materialized, never the whole list.
+ *
+ * Given a ListPositionIndex the spliterator instead covers a range of
+ * positions and splits it in halves, jumping to the middle node through the
+ * index in O(sqrt n) without copying anything.
+ *
+ * SIZED and SUBSIZED are reported when the length is known. The list must not
+ * change while it is traversed.
+ */
+public class ListNodeSpliterator implements Spliterator.OfInt {
+
+    static final int BATCH_UNIT = 1 << 10;
+    static final int MAX_BATCH = 1 << 25;
+    // Index assisted ranges are not split below this size
+    static final int MIN_SPLIT = 1 << 10;
+
+    private LinkedList.ListNode cur;
+    private final boolean sized;
+    // Values left to traverse, only meaningful if sized
+    private long remaining;
+    private int batch;
+
+    // Index assisted splitting only
+    private final ListPositionIndex index;
+    private int position;
+
+    private ListNodeSpliterator(LinkedList.ListNode head, boolean sized, long remaining, ListPositionIndex index,
+            int position) {
+        this.cur = head;
+        this.sized = sized;
+        this.remaining = remaining;
+        this.index = index;
+        this.position = position;
+    }
+
+    /**
+     * Spliterator over a chain of unknown length
+     *
+     * @param head of the linked list
+     */
+    public ListNodeSpliterator(LinkedList.ListNode head) {
+        this(head, false, Long.MAX_VALUE, null, 0);
+    }
+
+    /**
+     * Spliterator over a chain of known length
+     *
+     * @param head   of the linked list
+     * @param length number of nodes of the list
+     */
+    public ListNodeSpliterator(LinkedList.ListNode head, int length) {
+        this(head, true, length, null, 0);
+        if (length < 0) {
+            throw new IllegalArgumentException("length : " + length);
+        }
+    }
+
+    /**
+     * Spliterator over an indexed list, split without copying
+     *
+     * @param index of the linked list
+     */
+    public ListNodeSpliterator(ListPositionIndex index) {
+        this(index.getHead(), true, index.getNumOfNodes(), index, 0);
+    }
+
+    /**
+     * Stream the values of a chain of unknown length
+     *
+     * @param head     of the linked list
+     * @param parallel true for a parallel stream
+     * @return the stream
+     */
+    public static IntStream stream(LinkedList.ListNode head, boolean parallel) {
+        return StreamSupport.intStream(new ListNodeSpliterator(head), parallel);
+    }
+
+    /**
+     * Stream the values of a chain of known length
+     *
+     * @param head     of the linked list
+     * @param length   number of nodes of the list
+     * @param parallel true for a parallel stream
+     * @return the stream
+     */
+    public static IntStream stream(LinkedList.ListNode head, int length, boolean parallel) {
+        return StreamSupport.intStream(new ListNodeSpliterator(head, length), parallel);
+    }
+
+    /**
+     * Stream the values of an indexed list
+     *
+     * @param index    of the linked list
+     * @param parallel true for a parallel stream
+     * @return the stream
+     */
+    public static IntStream stream(ListPositionIndex index, boolean parallel) {
+        return StreamSupport.intStream(new ListNodeSpliterator(index), parallel);
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (cur == null || remaining == 0) {
+            return false;
+        }
+        int val = cur.val;
+        cur = cur.next;
+        if (sized) {
+            remaining--;
+        }
+        action.accept(val);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        LinkedList.ListNode node = cur;
+        long left = remaining;
+        // The node and count are cleared first so that the action cannot
+        // traverse them again
+        cur = null;
+        remaining = sized ? 0 : Long.MAX_VALUE;
+        for (; node != null && left > 0; node = node.next) {
+            action.accept(node.val);
+            if (sized) {
+                left--;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        if (cur == null || remaining <= 1) {
+            return null;
+        }
+        if (index != null) {
+            return splitByIndex();
+        }
+
+        // Copy a batch off the front
+        int n = (int) Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), remaining);
+        int[] vals = new int[n];
+        int count = 0;
+        LinkedList.ListNode node = cur;
+        while (count < n && node != null) {
+            vals[count++] = node.val;
+            node = node.next;
+        }
+        cur = node;
+        batch = count;
+        if (sized) {
+            remaining -= count;
+        }
+        return Spliterators.spliterator(vals, 0, count, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Hand the first half of the range to a new spliterator and jump to the
+     * middle node through the index
+     */
+    private Spliterator.OfInt splitByIndex() {
+        if (remaining < 2L * MIN_SPLIT) {
+            return null;
+        }
+        int half = (int) (remaining >>> 1);
+        ListNodeSpliterator prefix = new ListNodeSpliterator(cur, true, half, index, position);
+        position += half;
+        remaining -= half;
+        cur = index.getKthNode(position + 1);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        return sized ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+    }
+}
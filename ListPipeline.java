@@ -0,0 +1,404 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Lazy pipeline of transformations over linked lists
+ *
+ * Stages only wrap the iterator of the previous stage, nothing runs until a
+ * terminal operation pulls the values through. Every value then goes through
+ * all stages before the next one is read, so a chain of stages is a single
+ * pass over the sources. The sources are only read and new nodes are only
+ * created by toList, instead of every step rewriting the chain as
+ * reverseEvenElements, removeDuplicatesFromList and mergeTwoSortedLists do.
+ *
+ * A pipeline can be consumed once : adding a stage or running a terminal
+ * operation uses it up. The source lists must not change until the terminal
+ * operation is done.
+ */
+public final class ListPipeline {
+
+    private final PrimitiveIterator.OfInt source;
+    private boolean used;
+
+    private ListPipeline(PrimitiveIterator.OfInt source) {
+        this.source = source;
+    }
+
+    /**
+     * Pipeline over the values of a linked list
+     *
+     * @param head of the linked list
+     * @return the pipeline
+     */
+    public static ListPipeline of(LinkedList.ListNode head) {
+        return new ListPipeline(new PrimitiveIterator.OfInt() {
+            private LinkedList.ListNode next = head;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                int val = next.val;
+                next = next.next;
+                return val;
+            }
+        });
+    }
+
+    /**
+     * Pipeline over the values of an iterator
+     *
+     * @param source of the values
+     * @return the pipeline
+     */
+    public static ListPipeline of(PrimitiveIterator.OfInt source) {
+        return new ListPipeline(source);
+    }
+
+    private PrimitiveIterator.OfInt use() {
+        if (used) {
+            throw new IllegalStateException("pipeline already used");
+        }
+        used = true;
+        return source;
+    }
+
+    /**
+     * Iterator that computes its next value on demand
+     */
+    private abstract static class LookaheadIterator implements PrimitiveIterator.OfInt {
+        int fetched;
+        private boolean ready;
+        private boolean done;
+
+        /**
+         * Compute the next value into fetched
+         *
+         * @return false if there are no more values
+         */
+        abstract boolean fetch();
+
+        @Override
+        public boolean hasNext() {
+            if (!ready && !done) {
+                ready = fetch();
+                done = !ready;
+            }
+            return ready;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            return fetched;
+        }
+    }
+
+    /**
+     * Transform every value
+     *
+     * @param mapper applied to each value
+     * @return the pipeline with the stage added
+     */
+    public ListPipeline map(IntUnaryOperator mapper) {
+        PrimitiveIterator.OfInt in = use();
+        return new ListPipeline(new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return in.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return mapper.applyAsInt(in.nextInt());
+            }
+        });
+    }
+
+    /**
+     * Keep the values matching a predicate
+     *
+     * @param predicate deciding which values are kept
+     * @return the pipeline with the stage added
+     */
+    public ListPipeline filter(IntPredicate predicate) {
+        PrimitiveIterator.OfInt in = use();
+        return new ListPipeline(new LookaheadIterator() {
+            @Override
+            boolean fetch() {
+                while (in.hasNext()) {
+                    int val = in.nextInt();
+                    if (predicate.test(val)) {
+                        fetched = val;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Keep one value of every run of equal adjacent values, which removes all
+     * duplicates of a sorted input
+     *
+     * @return the pipeline with the stage added
+     */
+    public ListPipeline dedupeAdjacent() {
+        PrimitiveIterator.OfInt in = use();
+        return new ListPipeline(new LookaheadIterator() {
+            private boolean first = true;
+
+            @Override
+            boolean fetch() {
+                while (in.hasNext()) {
+                    int val = in.nextInt();
+                    if (first || val != fetched) {
+                        first = false;
+                        fetched = val;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Keep the first n values, the rest of the input is never read
+     *
+     * @param n max number of values
+     * @return the pipeline with the stage added
+     */
+    public ListPipeline take(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n : " + n);
+        }
+        PrimitiveIterator.OfInt in = use();
+        return new ListPipeline(new LookaheadIterator() {
+            private long left = n;
+
+            @Override
+            boolean fetch() {
+                if (left == 0 || !in.hasNext()) {
+                    return false;
+                }
+                left--;
+                fetched = in.nextInt();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reverse every run of contiguous values matching a predicate, as
+     * LinkedList.reverseEvenElements does for even values
+     *
+     * @param predicate selecting the values of the runs
+     * @return the pipeline with the stage added
+     *
+     *         Space complexity : O(longest run)
+     */
+    public ListPipeline reverseRuns(IntPredicate predicate) {
+        PrimitiveIterator.OfInt in = use();
+        return new ListPipeline(new LookaheadIterator() {
+            private int[] run = new int[16];
+            // Values of the buffered run not yet returned, in run[0, runLeft)
+            private int runLeft;
+            // Value that ended the buffered run
+            private int pending;
+            private boolean hasPending;
+
+            @Override
+            boolean fetch() {
+                if (runLeft > 0) {
+                    fetched = run[--runLeft];
+                    return true;
+                }
+                if (hasPending) {
+                    hasPending = false;
+                    fetched = pending;
+                    return true;
+                }
+                if (!in.hasNext()) {
+                    return false;
+                }
+                int val = in.nextInt();
+                if (!predicate.test(val)) {
+                    fetched = val;
+                    return true;
+                }
+                // Buffer the run up to the first value not matching
+                int length = 0;
+                run[length++] = val;
+                while (in.hasNext()) {
+                    val = in.nextInt();
+                    if (!predicate.test(val)) {
+                        pending = val;
+                        hasPending = true;
+                        break;
+                    }
+                    if (length == run.length) {
+                        run = Arrays.copyOf(run, length * 2);
+                    }
+                    run[length++] = val;
+                }
+                runLeft = length - 1;
+                fetched = run[runLeft];
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Merge with another pipeline, both yielding values in non decreasing
+     * order. Equal values of this pipeline come first.
+     *
+     * @param other sorted pipeline
+     * @return the pipeline with the stage added
+     */
+    public ListPipeline merge(ListPipeline other) {
+        PrimitiveIterator.OfInt first = use();
+        PrimitiveIterator.OfInt second = other.use();
+        // Two way merge keeping the head of each input, cheaper than the
+        // LoserTree of MergingIntIterator for k = 2
+        return new ListPipeline(new LookaheadIterator() {
+            private int firstVal;
+            private int secondVal;
+            private boolean hasFirst;
+            private boolean hasSecond;
+            private boolean started;
+
+            private boolean advanceFirst() {
+                if (!first.hasNext()) {
+                    return false;
+                }
+                firstVal = first.nextInt();
+                return true;
+            }
+
+            private boolean advanceSecond() {
+                if (!second.hasNext()) {
+                    return false;
+                }
+                secondVal = second.nextInt();
+                return true;
+            }
+
+            @Override
+            boolean fetch() {
+                if (!started) {
+                    started = true;
+                    hasFirst = advanceFirst();
+                    hasSecond = advanceSecond();
+                }
+                if (hasFirst && (!hasSecond || firstVal <= secondVal)) {
+                    fetched = firstVal;
+                    hasFirst = advanceFirst();
+                    return true;
+                }
+                if (hasSecond) {
+                    fetched = secondVal;
+                    hasSecond = advanceSecond();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Run the pipeline, building a new list from its output
+     *
+     * @return head of the new list
+     *
+     *         Time complexity : O(n) Space complexity : O(output)
+     */
+    public LinkedList.ListNode toList() {
+        PrimitiveIterator.OfInt in = use();
+        LinkedList.ListNode dummy = new LinkedList.ListNode(-1);
+        LinkedList.ListNode tail = dummy;
+        while (in.hasNext()) {
+            tail.next = new LinkedList.ListNode(in.nextInt());
+            tail = tail.next;
+        }
+        return dummy.next;
+    }
+
+    /**
+     * Run the pipeline into an array
+     *
+     * @return the output values
+     *
+     *         Time complexity : O(n) Space complexity : O(output)
+     */
+    public int[] toArray() {
+        PrimitiveIterator.OfInt in = use();
+        int[] vals = new int[16];
+        int size = 0;
+        while (in.hasNext()) {
+            if (size == vals.length) {
+                vals = Arrays.copyOf(vals, size * 2);
+            }
+            vals[size++] = in.nextInt();
+        }
+        return Arrays.copyOf(vals, size);
+    }
+
+    /**
+     * Run the pipeline, passing every output value to an action
+     *
+     * @param action applied to each value
+     */
+    public void forEach(IntConsumer action) {
+        PrimitiveIterator.OfInt in = use();
+        while (in.hasNext()) {
+            action.accept(in.nextInt());
+        }
+    }
+
+    /**
+     * @return sum of the output values
+     */
+    public long sum() {
+        PrimitiveIterator.OfInt in = use();
+        long sum = 0;
+        while (in.hasNext()) {
+            sum += in.nextInt();
+        }
+        return sum;
+    }
+
+    /**
+     * @return number of output values
+     */
+    public long count() {
+        PrimitiveIterator.OfInt in = use();
+        long count = 0;
+        while (in.hasNext()) {
+            in.nextInt();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return iterator pulling the output values on demand
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return use();
+    }
+}
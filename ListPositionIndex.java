@@ -0,0 +1,303 @@
+import java.util.Arrays;
+
+/**
+ * Sparse positional index over a ListNode chain
+ *
+ * Records a checkpoint node about every stride nodes together with its
+ * position, and the list length. Positional lookups binary search the nearest
+ * checkpoint before the position and walk at most 2 * stride nodes from there
+ * instead of walking from the head. With the default stride of sqrt(n) they
+ * cost O(sqrt n).
+ *
+ * Inserts and deletes done through the index keep it up to date in
+ * O(sqrt n) : later checkpoint positions are shifted and a gap that grows past
+ * 2 * stride is split. Changes made to the list behind the index's back
+ * require a rebuild.
+ */
+public class ListPositionIndex {
+
+    private LinkedList.ListNode head;
+    private int length;
+    private final boolean autoStride;
+    private int stride;
+    // Length when the stride was last chosen
+    private int builtLength;
+
+    private LinkedList.ListNode[] checkpoints;
+    private int[] positions;
+    private int numCheckpoints;
+
+    /**
+     * Index a list with a stride of sqrt(n)
+     *
+     * @param head of the list
+     */
+    public ListPositionIndex(LinkedList.ListNode head) {
+        this.head = head;
+        this.autoStride = true;
+        rebuild();
+    }
+
+    /**
+     * @param head   of the list
+     * @param stride nodes between checkpoints
+     */
+    public ListPositionIndex(LinkedList.ListNode head, int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException("stride : " + stride);
+        }
+        this.head = head;
+        this.autoStride = false;
+        this.stride = stride;
+        rebuild();
+    }
+
+    /**
+     * Recompute the length and the checkpoints from the head
+     *
+     * Time complexity : O(n) Space complexity : O(n / stride)
+     */
+    public void rebuild() {
+        length = LinkedList.getNumOfNodes(head);
+        builtLength = length;
+        if (autoStride) {
+            stride = Math.max(1, (int) Math.sqrt(length));
+        }
+        int capacity = Math.max(4, length / stride + 1);
+        checkpoints = new LinkedList.ListNode[capacity];
+        positions = new int[capacity];
+        numCheckpoints = 0;
+        int pos = 0;
+        for (LinkedList.ListNode cur = head; cur != null; cur = cur.next, pos++) {
+            if (pos % stride == 0) {
+                checkpoints[numCheckpoints] = cur;
+                positions[numCheckpoints] = pos;
+                numCheckpoints++;
+            }
+        }
+    }
+
+    public LinkedList.ListNode getHead() {
+        return head;
+    }
+
+    /**
+     * @return number of nodes in the list
+     */
+    public int getNumOfNodes() {
+        return length;
+    }
+
+    /**
+     * Get the index of the last checkpoint at or before a position
+     */
+    private int floorCheckpoint(int pos) {
+        int lo = 0;
+        int hi = numCheckpoints - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (positions[mid] <= pos) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Get the node at a 0 based position
+     */
+    private LinkedList.ListNode nodeAt(int pos) {
+        int j = floorCheckpoint(pos);
+        return LinkedList.skipNodes(checkpoints[j], pos - positions[j]);
+    }
+
+    /**
+     * Get the k-th node
+     *
+     * @param k 1 based position
+     * @return the k-th node, null if k is out of range
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode getKthNode(int k) {
+        if (k < 1 || k > length) {
+            return null;
+        }
+        return nodeAt(k - 1);
+    }
+
+    /**
+     * Get the k-th last node
+     *
+     * @param k 1 based position from the end
+     * @return the k-th last node, null if k is out of range
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode getKthLastNode(int k) {
+        return getKthNode(length - k + 1);
+    }
+
+    /**
+     * Get the node before the k-th last node
+     *
+     * @param k 1 based position from the end
+     * @return node before the k-th last node, null if the k-th last node is the
+     *         head or k is out of range
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode getNodeBeforeKthLastNode(int k) {
+        return getKthNode(length - k);
+    }
+
+    /**
+     * Get the mid node (2nd mid node if even number of nodes)
+     *
+     * @return the mid node, null for an empty list
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode getMidNode() {
+        return length == 0 ? null : nodeAt(length / 2);
+    }
+
+    /**
+     * Skip nodes from the head
+     *
+     * @param k nodes to skip
+     * @return the (k+1)th node, null if the list is shorter
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode skipNodes(int k) {
+        return getKthNode(k + 1);
+    }
+
+    /**
+     * Insert a value after the k-th node
+     *
+     * @param k         1 based position, 0 to insert at the head
+     * @param insertVal value to insert
+     * @return the new node
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1) amortized
+     */
+    public LinkedList.ListNode insertAfter(int k, int insertVal) {
+        if (k < 0 || k > length) {
+            throw new IndexOutOfBoundsException("k : " + k + ", length : " + length);
+        }
+        LinkedList.ListNode newNode;
+        if (k == 0) {
+            newNode = new LinkedList.ListNode(insertVal);
+            newNode.next = head;
+            head = newNode;
+        } else {
+            LinkedList.ListNode node = nodeAt(k - 1);
+            LinkedList.insertAfter(node, insertVal);
+            newNode = node.next;
+        }
+        length++;
+
+        if (numCheckpoints == 0) {
+            addCheckpoint(0, newNode, 0);
+            return newNode;
+        }
+
+        // 1. Shift checkpoints at or after the new position
+        int first = k == 0 ? 1 : floorCheckpoint(k - 1) + 1;
+        for (int j = first; j < numCheckpoints; j++) {
+            positions[j]++;
+        }
+        if (k == 0) {
+            // The head is always a checkpoint
+            checkpoints[0] = newNode;
+        }
+
+        // 2. Split the gap holding the new node if it became too long
+        int j = first - 1;
+        int gapEnd = j + 1 < numCheckpoints ? positions[j + 1] : length;
+        if (gapEnd - positions[j] > 2 * stride) {
+            addCheckpoint(j + 1, LinkedList.skipNodes(checkpoints[j], stride), positions[j] + stride);
+        }
+
+        if (autoStride && length > 2 * builtLength + 16) {
+            rebuild();
+        }
+        return newNode;
+    }
+
+    /**
+     * Delete the k-th node
+     *
+     * @param k 1 based position
+     * @return the head of the list after deleting the node
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode deleteKthNode(int k) {
+        if (k < 1 || k > length) {
+            throw new IndexOutOfBoundsException("k : " + k + ", length : " + length);
+        }
+        int pos = k - 1;
+        LinkedList.ListNode prev = pos == 0 ? null : nodeAt(pos - 1);
+        LinkedList.ListNode deleted = prev == null ? head : prev.next;
+        head = LinkedList.deleteNode(prev, head);
+        length--;
+
+        // 1. Shift checkpoints after the deleted position
+        int j = floorCheckpoint(pos);
+        for (int i = j + 1; i < numCheckpoints; i++) {
+            positions[i]--;
+        }
+
+        // 2. A deleted checkpoint is replaced by the node that took its position
+        if (positions[j] == pos) {
+            boolean taken = j + 1 < numCheckpoints && positions[j + 1] == pos;
+            if (deleted.next == null || taken) {
+                removeCheckpoint(j);
+            } else {
+                checkpoints[j] = deleted.next;
+            }
+        }
+        deleted.next = null;
+
+        if (autoStride && builtLength > 64 && length < builtLength / 4) {
+            rebuild();
+        }
+        return head;
+    }
+
+    /**
+     * Delete the k-th last node
+     *
+     * @param k 1 based position from the end
+     * @return the head of the list after deleting the node
+     *
+     *         Time complexity : O(sqrt n) Space complexity : O(1)
+     */
+    public LinkedList.ListNode deleteKthLastNode(int k) {
+        return deleteKthNode(length - k + 1);
+    }
+
+    private void addCheckpoint(int j, LinkedList.ListNode node, int pos) {
+        if (numCheckpoints == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, numCheckpoints * 2);
+            positions = Arrays.copyOf(positions, numCheckpoints * 2);
+        }
+        System.arraycopy(checkpoints, j, checkpoints, j + 1, numCheckpoints - j);
+        System.arraycopy(positions, j, positions, j + 1, numCheckpoints - j);
+        checkpoints[j] = node;
+        positions[j] = pos;
+        numCheckpoints++;
+    }
+
+    private void removeCheckpoint(int j) {
+        System.arraycopy(checkpoints, j + 1, checkpoints, j, numCheckpoints - j - 1);
+        System.arraycopy(positions, j + 1, positions, j, numCheckpoints - j - 1);
+        numCheckpoints--;
+        checkpoints[numCheckpoints] = null;
+    }
+}
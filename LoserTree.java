@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ * Tournament tree of losers over k int sources, used for k-way merging
+ *
+ * Leaf i holds the current key of source i. Every internal node keeps the
+ * loser of the match played there and tree[0] keeps the overall winner, so
+ * after the winner's source advances only the path from its leaf to the root
+ * is replayed : log2(k) comparisons per element and no allocation.
+ *
+ * Ties are won by the lower source index, which makes merges stable.
+ *
+ * Usage : set or exhaust every leaf, build, then repeatedly read winner,
+ * update that leaf and replay it.
+ */
+public class LoserTree {
+
+    private final int k;
+    private final int[] keys;
+    private final boolean[] exhausted;
+    private final int[] tree;
+
+    /**
+     * @param k number of sources
+     */
+    public LoserTree(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        this.k = k;
+        this.keys = new int[k];
+        this.exhausted = new boolean[k];
+        this.tree = new int[k];
+    }
+
+    /**
+     * Set the current key of a source
+     *
+     * @param leaf source index
+     * @param key  current head of the source
+     */
+    public void set(int leaf, int key) {
+        keys[leaf] = key;
+        exhausted[leaf] = false;
+    }
+
+    /**
+     * Mark a source as having no more keys
+     *
+     * @param leaf source index
+     */
+    public void exhaust(int leaf) {
+        exhausted[leaf] = true;
+    }
+
+    /**
+     * Check if leaf a wins against leaf b
+     */
+    private boolean beats(int a, int b) {
+        if (exhausted[a]) {
+            return false;
+        }
+        if (exhausted[b]) {
+            return true;
+        }
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    /**
+     * Play all matches once every leaf has been set or exhausted
+     *
+     * Time complexity : O(k) Space complexity : O(1)
+     */
+    public void build() {
+        Arrays.fill(tree, -1);
+        for (int leaf = 0; leaf < k; leaf++) {
+            int winner = leaf;
+            int node = (leaf + k) >>> 1;
+            while (node > 0) {
+                if (tree[node] == -1) {
+                    // First arrival waits for its opponent
+                    tree[node] = winner;
+                    winner = -1;
+                    break;
+                }
+                if (beats(tree[node], winner)) {
+                    int loser = winner;
+                    winner = tree[node];
+                    tree[node] = loser;
+                }
+                node >>>= 1;
+            }
+            if (winner != -1) {
+                tree[0] = winner;
+            }
+        }
+    }
+
+    /**
+     * Replay the matches on the path of a leaf after its key changed, the leaf
+     * must be the current winner
+     *
+     * @param leaf source index
+     *
+     *             Time complexity : O(logk) Space complexity : O(1)
+     */
+    public void replay(int leaf) {
+        int winner = leaf;
+        for (int node = (leaf + k) >>> 1; node > 0; node >>>= 1) {
+            if (beats(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * @return source index with the smallest current key, -1 if all sources are
+     *         exhausted
+     */
+    public int winner() {
+        int winner = tree[0];
+        return exhausted[winner] ? -1 : winner;
+    }
+
+    /**
+     * @return smallest current key, only valid if winner is not -1
+     */
+    public int winnerKey() {
+        return keys[tree[0]];
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Lazily merges k sorted int sources into one sorted stream
+ *
+ * Sources are pulled one element at a time, so the merged output can be
+ * consumed incrementally without materializing any of the inputs. Equal values
+ * come out in source order.
+ *
+ * Time complexity : O(logk) per element Space complexity : O(k)
+ */
+public class MergingIntIterator implements PrimitiveIterator.OfInt {
+
+    private final PrimitiveIterator.OfInt[] sources;
+    private final LoserTree tree;
+
+    /**
+     * @param sources each yielding ints in non decreasing order
+     */
+    public MergingIntIterator(PrimitiveIterator.OfInt... sources) {
+        this.sources = sources.clone();
+        this.tree = new LoserTree(Math.max(1, sources.length));
+        if (sources.length == 0) {
+            tree.exhaust(0);
+        }
+        for (int i = 0; i < sources.length; i++) {
+            advance(i);
+        }
+        tree.build();
+    }
+
+    private void advance(int source) {
+        if (sources[source].hasNext()) {
+            tree.set(source, sources[source].nextInt());
+        } else {
+            tree.exhaust(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return tree.winner() != -1;
+    }
+
+    @Override
+    public int nextInt() {
+        int winner = tree.winner();
+        if (winner == -1) {
+            throw new NoSuchElementException();
+        }
+        int val = tree.winnerKey();
+        advance(winner);
+        tree.replay(winner);
+        return val;
+    }
+}
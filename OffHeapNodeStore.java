@@ -0,0 +1,203 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Linked lists of ints stored outside the Java heap
+ *
+ * Nodes are fixed 8 byte records (val, next) in direct memory chunks, a node
+ * is addressed by its int index and NIL ends a list. The GC sees one buffer
+ * object per chunk of 2^20 nodes instead of one object per node, so lists of
+ * hundreds of millions of nodes add nothing to marking time.
+ *
+ * The store has an explicit lifetime : close frees the memory of every chunk
+ * right away, without waiting for the GC to collect the buffers (where
+ * sun.misc.Unsafe is reachable, otherwise it only drops them), and any later
+ * access fails. Until then the chunks count against -XX:MaxDirectMemorySize
+ * (by default the max heap size), 8 MB per chunk and at most MAX_CHUNKS chunks,
+ * so stores of hundreds of millions of nodes need that limit raised. A store is
+ * not thread safe.
+ *
+ * The LinkedList algorithms on node indices are inherited from IntNodeStore.
+ */
+public final class OffHeapNodeStore extends IntNodeStore implements AutoCloseable {
+
+    static final int NODE_BYTES = 8;
+    static final int NEXT_OFFSET = 4;
+    static final int CHUNK_SHIFT = 20;
+    static final int NODES_PER_CHUNK = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = NODES_PER_CHUNK - 1;
+    // One less than 2^31 / NODES_PER_CHUNK, so that the capacity and every node
+    // index stay below Integer.MAX_VALUE
+    static final int MAX_CHUNKS = (1 << (Integer.SIZE - 1 - CHUNK_SHIFT)) - 1;
+
+    // Unsafe.invokeCleaner, frees the memory of a direct buffer. null when
+    // sun.misc.Unsafe can not be reached, the chunks are then left to the GC
+    private static final MethodHandle INVOKE_CLEANER;
+
+    static {
+        MethodHandle invokeCleaner;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner = MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+        }
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private int capacity;
+    private int used;
+    private int freeHead = NIL;
+    private int numFree;
+    private boolean closed;
+
+    private ByteBuffer chunk(int node) {
+        if (closed) {
+            throw new IllegalStateException("OffHeapNodeStore is closed");
+        }
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int node) {
+        return (node & CHUNK_MASK) * NODE_BYTES;
+    }
+
+    @Override
+    public int val(int node) {
+        return chunk(node).getInt(offset(node));
+    }
+
+    @Override
+    public int next(int node) {
+        return chunk(node).getInt(offset(node) + NEXT_OFFSET);
+    }
+
+    @Override
+    public void setVal(int node, int val) {
+        chunk(node).putInt(offset(node), val);
+    }
+
+    @Override
+    public void setNext(int node, int next) {
+        chunk(node).putInt(offset(node) + NEXT_OFFSET, next);
+    }
+
+    /**
+     * Allocate a node, reusing a freed one if possible
+     *
+     * @param val of the node
+     * @return the new node, its next is NIL
+     *
+     *         Time complexity : O(1) amortized Space complexity : O(1)
+     */
+    @Override
+    public int allocate(int val) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = next(node);
+            numFree--;
+        } else {
+            if (used == capacity) {
+                // Fails once MAX_CHUNKS are in use, before used can overflow
+                addChunk();
+            }
+            node = used++;
+        }
+        setVal(node, val);
+        setNext(node, NIL);
+        return node;
+    }
+
+    private void addChunk() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapNodeStore is closed");
+        }
+        if (chunks.length == MAX_CHUNKS) {
+            throw new IllegalStateException("OffHeapNodeStore is full");
+        }
+        chunks = Arrays.copyOf(chunks, chunks.length + 1);
+        chunks[chunks.length - 1] = ByteBuffer.allocateDirect(NODES_PER_CHUNK * NODE_BYTES)
+                .order(ByteOrder.nativeOrder());
+        capacity += NODES_PER_CHUNK;
+    }
+
+    /**
+     * Return a single node to the store
+     *
+     * @param node to free, must not be used afterwards
+     */
+    @Override
+    public void free(int node) {
+        setNext(node, freeHead);
+        freeHead = node;
+        numFree++;
+    }
+
+    /**
+     * @return number of nodes currently allocated
+     */
+    @Override
+    public int getNumOfAllocatedNodes() {
+        return used - numFree;
+    }
+
+    /**
+     * @return bytes of direct memory held by the store
+     */
+    public long getReservedBytes() {
+        return (long) capacity * NODE_BYTES;
+    }
+
+    /**
+     * Free the memory of all chunks, the store can not be used afterwards
+     *
+     * Note : 1. If Unsafe.invokeCleaner is not available the chunks are only
+     * dropped, and their memory is freed when the GC collects them.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ByteBuffer[] freed = chunks;
+        chunks = new ByteBuffer[0];
+        capacity = 0;
+        for (ByteBuffer chunk : freed) {
+            if (!freeBuffer(chunk)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Free the memory of a direct or mapped buffer right away, the buffer and
+     * every view of it must not be used afterwards
+     *
+     * @param buffer direct buffer, not a slice or duplicate
+     * @return false if Unsafe.invokeCleaner is not available, the buffer is then
+     *         left to the GC
+     */
+    static boolean freeBuffer(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return false;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not free buffer", e);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,305 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Persistent (immutable) singly linked list of ints
+ *
+ * Nodes are never changed after construction. Updates return a new version
+ * that copies the nodes before the change and shares the unchanged tail with
+ * the old version, so every version stays valid and any number of threads can
+ * scan one without locks or copying. Publisher hands the latest version from
+ * writers to readers through a single volatile reference.
+ */
+public final class PersistentIntList {
+
+    static final class Node {
+        final int val;
+        final Node next;
+
+        Node(int val, Node next) {
+            this.val = val;
+            this.next = next;
+        }
+    }
+
+    private static final PersistentIntList EMPTY = new PersistentIntList(null, 0);
+
+    private final Node head;
+    private final int size;
+
+    private PersistentIntList(Node head, int size) {
+        this.head = head;
+        this.size = size;
+    }
+
+    public static PersistentIntList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a list from an array
+     *
+     * @param nums values of the list
+     * @return the list
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static PersistentIntList fromArray(int[] nums) {
+        Node head = null;
+        for (int i = nums.length - 1; i >= 0; i--) {
+            head = new Node(nums[i], head);
+        }
+        return new PersistentIntList(head, nums.length);
+    }
+
+    /**
+     * @return number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the value at an index
+     *
+     * @param index 0 based
+     * @return the value
+     *
+     *         Time complexity : O(index) Space complexity : O(1)
+     */
+    public int get(int index) {
+        checkIndex(index, size);
+        return nodeAt(index).val;
+    }
+
+    private Node nodeAt(int index) {
+        Node node = head;
+        for (int i = 0; i < index; i++) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    /**
+     * Prepend a value, sharing the whole list
+     *
+     * @param val to prepend
+     * @return the new version
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public PersistentIntList prepend(int val) {
+        return new PersistentIntList(new Node(val, head), size + 1);
+    }
+
+    /**
+     * Insert a value at an index, sharing the nodes from the index on
+     *
+     * @param index 0 based, size to append
+     * @param val   to insert
+     * @return the new version
+     *
+     *         Time complexity : O(index) Space complexity : O(index)
+     */
+    public PersistentIntList insert(int index, int val) {
+        checkIndex(index, size + 1);
+        Node rest = nodeAt(index);
+        return new PersistentIntList(copyPrefix(index, new Node(val, rest)), size + 1);
+    }
+
+    /**
+     * Delete the value at an index, sharing the nodes after it
+     *
+     * @param index 0 based
+     * @return the new version
+     *
+     *         Time complexity : O(index) Space complexity : O(index)
+     */
+    public PersistentIntList delete(int index) {
+        checkIndex(index, size);
+        Node rest = nodeAt(index).next;
+        return new PersistentIntList(copyPrefix(index, rest), size - 1);
+    }
+
+    /**
+     * Split the list into 2 parts where the first part contains k values
+     *
+     * @param k values in the first part
+     * @return the two parts, the second shares the nodes of this list
+     *
+     *         Time complexity : O(k) Space complexity : O(k)
+     */
+    public PersistentIntList[] splitList(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        k = Math.min(k, size);
+        PersistentIntList first = new PersistentIntList(copyPrefix(k, null), k);
+        PersistentIntList second = new PersistentIntList(nodeAt(k), size - k);
+        return new PersistentIntList[] { first, second };
+    }
+
+    /**
+     * Concatenate a list after this one, sharing all nodes of the other list
+     *
+     * @param other list to append
+     * @return the new version
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public PersistentIntList concat(PersistentIntList other) {
+        if (other.size == 0) {
+            return this;
+        }
+        return new PersistentIntList(copyPrefix(size, other.head), size + other.size);
+    }
+
+    /**
+     * Reverse the list, no node can be shared
+     *
+     * @return the reversed version
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public PersistentIntList reverse() {
+        Node reversed = null;
+        for (Node node = head; node != null; node = node.next) {
+            reversed = new Node(node.val, reversed);
+        }
+        return new PersistentIntList(reversed, size);
+    }
+
+    /**
+     * Copy the first k nodes in front of a given tail
+     */
+    private Node copyPrefix(int k, Node tail) {
+        if (k == 0) {
+            return tail;
+        }
+        // Nodes are immutable so the copy is built back to front from an array
+        int[] vals = new int[k];
+        Node node = head;
+        for (int i = 0; i < k; i++) {
+            vals[i] = node.val;
+            node = node.next;
+        }
+        Node copy = tail;
+        for (int i = k - 1; i >= 0; i--) {
+            copy = new Node(vals[i], copy);
+        }
+        return copy;
+    }
+
+    /**
+     * @return values in order
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int[] toArray() {
+        int[] nums = new int[size];
+        int i = 0;
+        for (Node node = head; node != null; node = node.next) {
+            nums[i++] = node.val;
+        }
+        return nums;
+    }
+
+    /**
+     * @return iterator over this version
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Node next = head;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                int val = next.val;
+                next = next.next;
+                return val;
+            }
+        };
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("index : " + index + ", bound : " + bound);
+        }
+    }
+
+    /**
+     * Publishes versions of a list from writers to lock free readers
+     *
+     * Readers take a snapshot and scan it for as long as they like, writers
+     * swap in new versions. Concurrent writers are serialized by a compare and
+     * set retry loop, so an update function may run more than once and must be
+     * side effect free.
+     */
+    public static final class Publisher {
+
+        private static final VarHandle CURRENT;
+        static {
+            try {
+                CURRENT = MethodHandles.lookup().findVarHandle(Publisher.class, "current", PersistentIntList.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile PersistentIntList current;
+
+        public Publisher() {
+            this(EMPTY);
+        }
+
+        public Publisher(PersistentIntList initial) {
+            current = initial;
+        }
+
+        /**
+         * @return the latest published version
+         */
+        public PersistentIntList snapshot() {
+            return current;
+        }
+
+        /**
+         * Replace the published version
+         *
+         * @param list new version
+         */
+        public void publish(PersistentIntList list) {
+            current = list;
+        }
+
+        /**
+         * Atomically publish a version derived from the latest one
+         *
+         * @param update function deriving the new version
+         * @return the published version
+         */
+        public PersistentIntList update(UnaryOperator<PersistentIntList> update) {
+            while (true) {
+                PersistentIntList prev = current;
+                PersistentIntList next = update.apply(prev);
+                if (CURRENT.compareAndSet(this, prev, next)) {
+                    return next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorted view of a rotated sorted array, such as a ring buffer of sorted values
+ *
+ * The array is a sorted sequence rotated at the pivot : its logical order is
+ * nums[pivot, n) followed by nums[0, pivot). The pivot is found once when the
+ * view is created, then logical index i is at nums[pivot + i] or nums[pivot +
+ * i - n]. Searches first pick the half that holds the target by comparing it
+ * with nums[n - 1], the largest value of the first half, then binary search
+ * that half directly, so they cost the same as on a plain sorted array.
+ *
+ * The array is not copied : it must not change while the view is used.
+ */
+public class RotatedSortedIntView {
+
+    private final int[] nums;
+    private final int n;
+    private final int pivot;
+
+    /**
+     * @param nums a sorted array rotated by any amount, duplicates allowed
+     *
+     *             Time complexity : O(logn), O(n) when most values are equal
+     *             Space complexity : O(1)
+     */
+    public RotatedSortedIntView(int[] nums) {
+        this.nums = nums;
+        this.n = nums.length;
+        this.pivot = findPivot(nums);
+    }
+
+    /**
+     * Find where the sorted order starts in a rotated sorted array
+     *
+     * @param nums a sorted array rotated by any amount
+     * @return index of the first element of the sorted order, 0 if not rotated
+     *
+     *         Time complexity : O(logn), O(n) when most values are equal
+     *         Space complexity : O(1)
+     *
+     *         Note : 1. Unlike ArrayUtils.getSmallestInRotatedSortedArray this
+     *         handles arrays that are not rotated and duplicates. When
+     *         nums[mid] == nums[hi] the side of the pivot cannot be told, so hi
+     *         moves down one step, unless nums[hi - 1] > nums[hi] which makes hi
+     *         the pivot.
+     */
+    public static int findPivot(int[] nums) {
+        int lo = 0;
+        int hi = nums.length - 1;
+        // The pivot is in [lo, hi]
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (nums[mid] > nums[hi]) {
+                lo = mid + 1;
+            } else if (nums[mid] < nums[hi]) {
+                hi = mid;
+            } else if (nums[hi - 1] > nums[hi]) {
+                return hi;
+            } else {
+                hi--;
+            }
+        }
+        return Math.max(lo, 0);
+    }
+
+    /**
+     * @return number of values
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return index in the array of the smallest value, where the sorted order
+     *         starts
+     */
+    public int getPivot() {
+        return pivot;
+    }
+
+    /**
+     * Map a logical index to the array index holding it
+     */
+    private int physicalIndex(int i) {
+        int j = pivot + i;
+        return j >= n ? j - n : j;
+    }
+
+    /**
+     * Value at a position of the sorted order
+     *
+     * @param i logical index
+     * @return the i-th smallest value
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public int get(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("index : " + i + ", size : " + n);
+        }
+        return nums[physicalIndex(i)];
+    }
+
+    /**
+     * Logical index of the first value >= target
+     *
+     * @param target to look for
+     * @return the index, size() if all values are smaller
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int lowerBound(int target) {
+        if (pivot == 0) {
+            return ArrayUtils.binaryLowerBound(nums, 0, n, target);
+        }
+        // Values equal to nums[n - 1] may continue in nums[0, pivot), the first
+        // ones are in nums[pivot, n)
+        if (target <= nums[n - 1]) {
+            return ArrayUtils.binaryLowerBound(nums, pivot, n, target) - pivot;
+        }
+        return n - pivot + ArrayUtils.binaryLowerBound(nums, 0, pivot, target);
+    }
+
+    /**
+     * Logical index of the first value > target
+     *
+     * @param target to look for
+     * @return the index, size() if all values are smaller or equal
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int upperBound(int target) {
+        return target == Integer.MAX_VALUE ? n : lowerBound(target + 1);
+    }
+
+    /**
+     * Search a value
+     *
+     * @param target to find
+     * @return logical index of the first occurrence of target, -1 if absent
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int indexOf(int target) {
+        int i = lowerBound(target);
+        return i < n && nums[physicalIndex(i)] == target ? i : -1;
+    }
+
+    /**
+     * Check if a value is present
+     *
+     * @param target to find
+     * @return true if present
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public boolean contains(int target) {
+        return indexOf(target) != -1;
+    }
+
+    /**
+     * Count the values in [low, high]
+     *
+     * @param low  smallest value counted
+     * @param high largest value counted
+     * @return number of values in range, 0 if low > high
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int countInRange(int low, int high) {
+        if (low > high) {
+            return 0;
+        }
+        return upperBound(high) - lowerBound(low);
+    }
+
+    /**
+     * Pass the values in [low, high] to an action in sorted order
+     *
+     * @param low    smallest value passed
+     * @param high   largest value passed
+     * @param action applied to each value
+     *
+     *               Time complexity : O(logn + k) for k values in range Space
+     *               complexity : O(1)
+     */
+    public void forEachInRange(int low, int high, IntConsumer action) {
+        if (low <= high) {
+            forEach(lowerBound(low), upperBound(high), action);
+        }
+    }
+
+    /**
+     * Pass the values at logical indices [from, to) to an action in sorted
+     * order
+     *
+     * @param from   first logical index
+     * @param to     logical index after the last one
+     * @param action applied to each value
+     *
+     *               Time complexity : O(to - from) Space complexity : O(1)
+     */
+    public void forEach(int from, int to, IntConsumer action) {
+        if (from < 0 || to > n || from > to) {
+            throw new IndexOutOfBoundsException("from : " + from + ", to : " + to + ", size : " + n);
+        }
+        // Two plain loops, one per side of the end of the array
+        int split = n - pivot;
+        for (int i = Math.min(from, split); i < Math.min(to, split); i++) {
+            action.accept(nums[pivot + i]);
+        }
+        for (int i = Math.max(from, split); i < to; i++) {
+            action.accept(nums[i - split]);
+        }
+    }
+
+    /**
+     * Pass all values to an action in sorted order
+     *
+     * @param action applied to each value
+     */
+    public void forEach(IntConsumer action) {
+        forEach(0, n, action);
+    }
+
+    /**
+     * @return the values in sorted order
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int[] toArray() {
+        int[] sorted = new int[n];
+        System.arraycopy(nums, pivot, sorted, 0, n - pivot);
+        System.arraycopy(nums, 0, sorted, n - pivot, pivot);
+        return sorted;
+    }
+
+    /**
+     * @return iterator over the values in sorted order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < n;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= n) {
+                    throw new NoSuchElementException();
+                }
+                return nums[physicalIndex(next++)];
+            }
+        };
+    }
+}
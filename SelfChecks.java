@@ -0,0 +1,630 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Randomized and multi-threaded self checks of the lock-free, parallel and
+ * off-heap code
+ *
+ * Usage : javac *.java && java SelfChecks [filter] [seed=1] [threads=8]
+ *
+ * Every check compares the code under test with a sequential model on random
+ * inputs, from several threads where the code is concurrent. A failing check
+ * prints its seed and the process exits with status 1, so the checks can run
+ * as a build gate. They find races by chance : run them with several seeds
+ * and more threads than cores after changing the concurrent classes.
+ */
+public class SelfChecks {
+
+    static final int DEFAULT_THREADS = 8;
+
+    static final List<NamedCheck> CHECKS = new ArrayList<>();
+
+    private SelfChecks() {
+    }
+
+    /**
+     * A check run with a seed and a number of threads, throws on failure
+     */
+    interface Check {
+        void run(long seed, int threads) throws Exception;
+    }
+
+    /**
+     * The operations shared by the concurrent sorted sets
+     */
+    interface IntSet {
+        boolean insert(int val);
+
+        boolean remove(int val);
+
+        boolean contains(int val);
+
+        int size();
+
+        PrimitiveIterator.OfInt iterator();
+    }
+
+    /**
+     * Body of a checking thread
+     */
+    interface Worker {
+        void run(int thread, Random random) throws Exception;
+    }
+
+    static void register(String name, Check check) {
+        CHECKS.add(new NamedCheck(name, check));
+    }
+
+    static final class NamedCheck {
+        final String name;
+        final Check check;
+
+        NamedCheck(String name, Check check) {
+            this.name = name;
+            this.check = check;
+        }
+    }
+
+    interface IntSetFactory {
+        IntSet create();
+    }
+
+    static {
+        registerConcurrentSetChecks("ConcurrentSortedIntList", () -> {
+            ConcurrentSortedIntList list = new ConcurrentSortedIntList();
+            return new IntSet() {
+                @Override
+                public boolean insert(int val) {
+                    return list.insert(val);
+                }
+
+                @Override
+                public boolean remove(int val) {
+                    return list.remove(val);
+                }
+
+                @Override
+                public boolean contains(int val) {
+                    return list.contains(val);
+                }
+
+                @Override
+                public int size() {
+                    return list.size();
+                }
+
+                @Override
+                public PrimitiveIterator.OfInt iterator() {
+                    return list.iterator();
+                }
+            };
+        });
+        registerConcurrentSetChecks("ConcurrentIntSkipList", () -> {
+            ConcurrentIntSkipList list = new ConcurrentIntSkipList();
+            return new IntSet() {
+                @Override
+                public boolean insert(int val) {
+                    return list.insert(val);
+                }
+
+                @Override
+                public boolean remove(int val) {
+                    return list.remove(val);
+                }
+
+                @Override
+                public boolean contains(int val) {
+                    return list.contains(val);
+                }
+
+                @Override
+                public int size() {
+                    return list.size();
+                }
+
+                @Override
+                public PrimitiveIterator.OfInt iterator() {
+                    return list.iterator();
+                }
+            };
+        });
+        // Range scans during writes stay in range and increasing, and match a
+        // model once the writers are done
+        register("ConcurrentIntSkipList.range", (seed, threads) -> {
+            ConcurrentIntSkipList list = new ConcurrentIntSkipList();
+            int range = 1 << 14;
+            runThreads(seed, threads, (thread, random) -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int val = random.nextInt(range);
+                    if (thread % 2 == 0) {
+                        int from = random.nextInt(range);
+                        int to = from + random.nextInt(256);
+                        long last = Long.MIN_VALUE;
+                        PrimitiveIterator.OfInt it = list.range(from, to);
+                        while (it.hasNext()) {
+                            int next = it.nextInt();
+                            require(next >= from && next < to, next + " out of [" + from + ", " + to + ")");
+                            require(next > last, "range not increasing : " + last + " then " + next);
+                            last = next;
+                        }
+                    } else if (random.nextBoolean()) {
+                        list.insert(val);
+                    } else {
+                        list.remove(val);
+                    }
+                }
+            });
+            BitSet model = new BitSet();
+            for (PrimitiveIterator.OfInt it = list.iterator(); it.hasNext();) {
+                model.set(it.nextInt());
+            }
+            Random random = new Random(seed);
+            for (int i = 0; i < 1000; i++) {
+                int from = random.nextInt(range) - 16;
+                int to = from + random.nextInt(512);
+                PrimitiveIterator.OfInt it = list.range(from, to);
+                int val = model.nextSetBit(Math.max(0, from));
+                for (; val >= 0 && val < to; val = model.nextSetBit(val + 1)) {
+                    require(it.hasNext() && it.nextInt() == val, "range [" + from + ", " + to + ") misses " + val);
+                }
+                require(!it.hasNext(), "range [" + from + ", " + to + ") has extra values");
+            }
+        });
+    }
+
+    static {
+        // Small graphs against a brute force walk from every node, then
+        // parallelClassify against classify on graphs large enough to be split
+        // into many tasks
+        register("CycleAnalysis.classify", (seed, threads) -> {
+            Random random = new Random(seed);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (int round = 0; round < 2000; round++) {
+                    int[] successors = successorGraph(random.nextInt(64), round % 4, random);
+                    CycleAnalysis.Classification classification = CycleAnalysis.classify(successors);
+                    requireBruteForce(successors, classification);
+                    requireSame(classification, CycleAnalysis.parallelClassify(successors, pool), successors.length);
+                }
+                for (int round = 0; round < 40; round++) {
+                    int[] successors = successorGraph(1 << (14 + random.nextInt(5)), round % 4, random);
+                    CycleAnalysis.Classification classification = CycleAnalysis.classify(successors);
+                    requireSame(classification, CycleAnalysis.parallelClassify(successors, pool), successors.length);
+                    for (int i = 0; i < 64; i++) {
+                        int start = random.nextInt(successors.length);
+                        int[] result = CycleAnalysis.analyze(successors, start);
+                        require(result[0] == classification.distance(start)
+                                && result[2] == classification.cycleLength(start)
+                                && (result[1] == -1 ? classification.cycleId(start) == -1
+                                        : classification.isOnCycle(result[1])
+                                                && classification.cycleId(result[1]) == classification.cycleId(start)),
+                                "analyze from " + start + " : " + Arrays.toString(result));
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        });
+    }
+
+    static {
+        for (IntKeyCache.EvictionPolicy policy : IntKeyCache.EvictionPolicy.values()) {
+            registerCacheCheck(policy);
+        }
+    }
+
+    /**
+     * Register a check of IntKeyCache with mixed get, put and remove calls
+     *
+     * Values are (key << 32) | version. Each thread owns the keys below range
+     * congruent to its id, so a hit on them must return the last value the
+     * thread put, and the keys above range are shared, so a hit must return a
+     * value put for that key. The weight must stay within the bound at all
+     * times, and once the threads are done it must match the entries left and
+     * every get must have counted one hit or one miss.
+     */
+    static void registerCacheCheck(IntKeyCache.EvictionPolicy policy) {
+        register("IntKeyCache." + policy, (seed, threads) -> {
+            // At least 4 per segment, the largest entry weight
+            long maxWeight = 32L * threads;
+            IntKeyCache<Long> cache = new IntKeyCache<>(policy, maxWeight, threads, (key, value) -> 1 + (key & 3));
+            int range = 1 << 12;
+            int shared = 1 << 6;
+            int ops = 100_000;
+            AtomicLong gets = new AtomicLong();
+            runThreads(seed, threads, (thread, random) -> {
+                // Last value put for each owned key, 0 when absent
+                long[] model = new long[range];
+                for (int op = 0; op < ops; op++) {
+                    int key = random.nextInt(4) == 0 ? range + random.nextInt(shared)
+                            : random.nextInt(range / threads) * threads + thread;
+                    boolean owned = key < range;
+                    long value = (long) key << 32 | op;
+                    int kind = random.nextInt(8);
+                    Long found;
+                    if (kind < 4) {
+                        found = cache.get(key);
+                        gets.incrementAndGet();
+                    } else if (kind < 7) {
+                        found = cache.put(key, value);
+                    } else {
+                        found = cache.remove(key);
+                    }
+                    if (found != null) {
+                        require(owned ? found == model[key] : found >>> 32 == key,
+                                "key " + key + " returned " + Long.toHexString(found)
+                                        + (owned ? ", last put " + Long.toHexString(model[key]) : ""));
+                    }
+                    if (owned && kind >= 4) {
+                        model[key] = kind < 7 ? value : 0;
+                    }
+                    long weight = cache.getWeight();
+                    require(weight <= maxWeight, "weight " + weight + " over the bound " + maxWeight);
+                }
+            });
+            long weight = 0;
+            int size = 0;
+            for (int key = 0; key < range + shared; key++) {
+                if (cache.get(key) != null) {
+                    weight += 1 + (key & 3);
+                    size++;
+                }
+            }
+            require(cache.getWeight() == weight && cache.size() == size, "weight " + cache.getWeight() + ", size "
+                    + cache.size() + " for entries of weight " + weight + ", size " + size);
+            require(cache.getHitCount() + cache.getMissCount() == gets.get() + range + shared,
+                    cache.getHitCount() + " hits and " + cache.getMissCount() + " misses for "
+                            + (gets.get() + range + shared) + " gets");
+        });
+    }
+
+    static {
+        // Files sorted with a small buffer so that they spill many runs, with
+        // and without duplicates removed, against Arrays.sort
+        register("ExternalIntSorter.sortFile", (seed, threads) -> {
+            Random random = new Random(seed);
+            Path dir = Files.createTempDirectory("selfcheck");
+            Path input = dir.resolve("input.ints");
+            Path output = dir.resolve("output.ints");
+            try {
+                for (int round = 0; round < 60; round++) {
+                    int[] nums = new int[random.nextInt(1 << 15)];
+                    int bound = round % 2 == 0 ? 1 + random.nextInt(1000) : Integer.MAX_VALUE;
+                    for (int i = 0; i < nums.length; i++) {
+                        nums[i] = random.nextInt(bound) - bound / 2;
+                    }
+                    writeInts(input, nums);
+                    boolean removeDuplicates = round % 3 == 0;
+                    long written = ExternalIntSorter.sortFile(input, output, 1 + random.nextInt(4096),
+                            removeDuplicates);
+                    int[] expected = nums.clone();
+                    Arrays.sort(expected);
+                    if (removeDuplicates) {
+                        expected = Arrays.copyOf(expected, ArrayUtils.removeAdjacentDuplicates(expected,
+                                expected.length));
+                    }
+                    require(written == expected.length, "wrote " + written + " ints, expected " + expected.length);
+                    require(Arrays.equals(readInts(output, expected.length), expected),
+                            "sorted " + nums.length + " ints, removeDuplicates " + removeDuplicates);
+                }
+
+                // close unmaps and deletes the runs, then the iterator fails
+                // instead of reading unmapped memory
+                ExternalIntSorter sorter = new ExternalIntSorter(64, dir, false);
+                for (int i = 0; i < 1000; i++) {
+                    sorter.add(random.nextInt());
+                }
+                PrimitiveIterator.OfInt sorted = sorter.sortedIterator();
+                sorted.nextInt();
+                sorter.close();
+                try (Stream<Path> files = Files.list(dir)) {
+                    require(files.filter(path -> path.getFileName().toString().startsWith("run")).count() == 0,
+                            "runs left after close");
+                }
+                try {
+                    while (sorted.hasNext()) {
+                        sorted.nextInt();
+                    }
+                    require(false, "iterator used after close");
+                } catch (IllegalStateException expected) {
+                    // The sorter is closed
+                }
+            } finally {
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(output);
+                Files.deleteIfExists(dir);
+            }
+        });
+    }
+
+    static void writeInts(Path path, int[] nums) throws Exception {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (int val : nums) {
+                out.writeInt(val);
+            }
+        }
+    }
+
+    /**
+     * Read a file of ints, which must hold exactly count of them
+     */
+    static int[] readInts(Path path, int count) throws Exception {
+        int[] nums = new int[count];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            for (int i = 0; i < count; i++) {
+                nums[i] = in.readInt();
+            }
+            try {
+                in.readInt();
+                require(false, "more than " + count + " ints in " + path);
+            } catch (EOFException expected) {
+                // Exactly count ints
+            }
+        }
+        return nums;
+    }
+
+    /**
+     * Random successor graph of one of 4 shapes : a random function with a few
+     * chain ends, a permutation (only cycles), a single cycle with random
+     * tails, or chains that all end at -1
+     */
+    static int[] successorGraph(int n, int shape, Random random) {
+        int[] successors = new int[n];
+        if (shape == 0) {
+            for (int i = 0; i < n; i++) {
+                successors[i] = random.nextInt(16) == 0 ? -1 : random.nextInt(n);
+            }
+        } else if (shape == 1 || shape == 2) {
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                int j = random.nextInt(i + 1);
+                order[i] = order[j];
+                order[j] = i;
+            }
+            int cycle = shape == 1 ? n : 1 + random.nextInt(Math.max(1, n / 8));
+            for (int i = 0; i < n; i++) {
+                // Permutation cycles, or one cycle over order[0, cycle) and
+                // tails hanging from earlier nodes
+                successors[order[i]] = shape == 1 ? order[(i + 1) % n]
+                        : i < cycle ? order[(i + 1) % cycle] : order[random.nextInt(i)];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                successors[i] = i == 0 || random.nextInt(8) == 0 ? -1 : random.nextInt(i);
+            }
+        }
+        return successors;
+    }
+
+    /**
+     * Compare a classification with a walk from every node
+     */
+    static void requireBruteForce(int[] successors, CycleAnalysis.Classification classification) {
+        int n = successors.length;
+        int[] position = new int[n];
+        int[] path = new int[n];
+        int numCycles = 0;
+        for (int start = 0; start < n; start++) {
+            Arrays.fill(position, -1);
+            int steps = 0;
+            int node = start;
+            while (node != -1 && position[node] == -1) {
+                position[node] = steps;
+                path[steps++] = node;
+                node = successors[node];
+            }
+            int distance = node == -1 ? steps : position[node];
+            int cycleId = -1;
+            for (int i = distance; i < steps; i++) {
+                cycleId = cycleId == -1 ? path[i] : Math.min(cycleId, path[i]);
+            }
+            int cycleLength = node == -1 ? 0 : steps - distance;
+            numCycles += cycleId == start ? 1 : 0;
+            require(classification.distance(start) == distance && classification.cycleId(start) == cycleId
+                    && classification.cycleLength(start) == cycleLength,
+                    "node " + start + " of " + Arrays.toString(successors));
+        }
+        require(classification.getNumOfCycles() == numCycles, "number of cycles of " + Arrays.toString(successors));
+    }
+
+    static void requireSame(CycleAnalysis.Classification expected, CycleAnalysis.Classification actual, int n) {
+        require(expected.getNumOfCycles() == actual.getNumOfCycles(),
+                "number of cycles " + actual.getNumOfCycles() + ", expected " + expected.getNumOfCycles());
+        for (int node = 0; node < n; node++) {
+            require(expected.cycleId(node) == actual.cycleId(node) && expected.distance(node) == actual.distance(node)
+                    && expected.cycleLength(node) == actual.cycleLength(node), "parallel result of node " + node);
+        }
+    }
+
+    /**
+     * Register the checks every concurrent sorted set must pass
+     */
+    static void registerConcurrentSetChecks(String name, IntSetFactory factory) {
+        // Each thread owns the values congruent to its id, so the result of
+        // every call is known from the thread's own model
+        register(name + ".ownedKeys", (seed, threads) -> {
+            IntSet set = factory.create();
+            BitSet[] models = new BitSet[threads];
+            int range = 1 << 8;
+            runThreads(seed, threads, (thread, random) -> {
+                BitSet model = new BitSet();
+                models[thread] = model;
+                for (int i = 0; i < 20_000; i++) {
+                    int val = random.nextInt(range) * threads + thread - range * threads / 2;
+                    int key = val + range * threads / 2;
+                    int op = random.nextInt(3);
+                    boolean expected;
+                    boolean actual;
+                    if (op == 0) {
+                        expected = !model.get(key);
+                        model.set(key);
+                        actual = set.insert(val);
+                    } else if (op == 1) {
+                        expected = model.get(key);
+                        model.clear(key);
+                        actual = set.remove(val);
+                    } else {
+                        expected = model.get(key);
+                        actual = set.contains(val);
+                    }
+                    require(expected == actual, "op " + op + " on " + val + " returned " + actual);
+                    // Values of other threads may change at any time, only
+                    // exercise the traversal
+                    set.contains(random.nextInt(range * threads) - range * threads / 2);
+                }
+            });
+            BitSet expected = new BitSet();
+            for (BitSet model : models) {
+                expected.or(model);
+            }
+            requireContents(set, expected, range * threads / 2);
+        });
+        // All threads fight over a few values : per value, the successful
+        // inserts and removes must alternate, so they differ by the final
+        // presence. Readers check that iteration stays strictly increasing.
+        register(name + ".contendedKeys", (seed, threads) -> {
+            IntSet set = factory.create();
+            int range = 64;
+            int[][] balances = new int[threads][range];
+            runThreads(seed, threads, (thread, random) -> {
+                int[] balance = balances[thread];
+                for (int i = 0; i < 50_000; i++) {
+                    int val = random.nextInt(range);
+                    if (thread == 0 && i % 64 == 0) {
+                        long last = Long.MIN_VALUE;
+                        PrimitiveIterator.OfInt it = set.iterator();
+                        while (it.hasNext()) {
+                            int next = it.nextInt();
+                            require(next > last, "iteration not increasing : " + last + " then " + next);
+                            last = next;
+                        }
+                    } else if (random.nextBoolean()) {
+                        balance[val] += set.insert(val) ? 1 : 0;
+                    } else {
+                        balance[val] -= set.remove(val) ? 1 : 0;
+                    }
+                }
+            });
+            BitSet expected = new BitSet();
+            for (int val = 0; val < range; val++) {
+                int balance = 0;
+                for (int[] perThread : balances) {
+                    balance += perThread[val];
+                }
+                require(balance == 0 || balance == 1, "value " + val + " inserted - removed = " + balance);
+                if (balance == 1) {
+                    expected.set(val);
+                }
+            }
+            requireContents(set, expected, 0);
+        });
+    }
+
+    /**
+     * Check that a quiescent set holds exactly the expected values
+     *
+     * @param expected values, shifted by offset
+     * @param offset   subtracted from the bit indices to get the values
+     */
+    static void requireContents(IntSet set, BitSet expected, int offset) {
+        require(set.size() == expected.cardinality(),
+                "size " + set.size() + ", expected " + expected.cardinality());
+        PrimitiveIterator.OfInt it = set.iterator();
+        for (int key = expected.nextSetBit(0); key >= 0; key = expected.nextSetBit(key + 1)) {
+            require(it.hasNext(), "iteration ended before " + (key - offset));
+            int val = it.nextInt();
+            require(val == key - offset, "iterated " + val + ", expected " + (key - offset));
+            require(set.contains(val), "missing " + val);
+        }
+        require(!it.hasNext(), "iteration has extra values");
+    }
+
+    /**
+     * Run a worker on several threads started together, each with its own
+     * random generator, and rethrow the first failure
+     */
+    static void runThreads(long seed, int threads, Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            running[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(thread, new Random(seed * 31 + thread));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            running[t].start();
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        Throwable e = failure.get();
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        }
+        if (e != null) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    public static void main(String[] args) {
+        String filter = null;
+        long seed = 1;
+        int threads = DEFAULT_THREADS;
+        for (String arg : args) {
+            if (arg.startsWith("seed=")) {
+                seed = Long.parseLong(arg.substring("seed=".length()));
+            } else if (arg.startsWith("threads=")) {
+                threads = Integer.parseInt(arg.substring("threads=".length()));
+            } else {
+                filter = arg;
+            }
+        }
+
+        int failed = 0;
+        for (NamedCheck named : CHECKS) {
+            if (filter != null && !named.name.contains(filter)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                named.check.run(seed, threads);
+                System.out.printf("ok      %-48s %8d ms%n", named.name, (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                failed++;
+                System.out.printf("FAILED  %-48s seed=%d threads=%d : %s%n", named.name, seed, threads, e);
+            }
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Search index over a sorted int array in Eytzinger (BFS) layout
+ *
+ * The values are stored in the order of a breadth first traversal of the
+ * implicit binary search tree : the children of slot k are 2k and 2k + 1, slot
+ * 1 is the root. A search walks down from the root, its first levels share a
+ * few cache lines that stay hot across queries, and the 16 descendants four
+ * levels below a node are contiguous, so each cache line fetched serves four
+ * levels instead of the one probe of a plain binary search. The descent only
+ * computes the next slot from a comparison, there is no data dependent
+ * branch, and it loads the slots a few levels ahead early so that their cache
+ * lines arrive while it is still comparing.
+ *
+ * Built once in O(n), immutable afterwards and safe to share between threads.
+ */
+public class SortedIntIndex {
+
+    // Java has no prefetch instruction : the descent loads the first of the 8
+    // descendants 3 levels below the current slot, so the CPU fetches their
+    // cache line while the comparisons of the next levels go on. The loaded
+    // values only feed a check that never passes (a slot is never > n) so that
+    // the JIT cannot drop the loads.
+    static final int PREFETCH_LEVELS = 3;
+    private static final int PREFETCH_GUARD = 0x5F3759DF;
+
+    // 1 based, tree[0] unused
+    private final int[] tree;
+    // Index in the sorted array of the value at each slot, n for slot 0
+    private final int[] ranks;
+    private final int n;
+    // Largest slot whose descendants PREFETCH_LEVELS below exist
+    private final int prefetchLimit;
+
+    /**
+     * @param sorted values in non decreasing order, not retained
+     */
+    public SortedIntIndex(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] > sorted[i]) {
+                throw new IllegalArgumentException("not sorted at index " + i);
+            }
+        }
+        n = sorted.length;
+        prefetchLimit = n >>> PREFETCH_LEVELS;
+        tree = new int[n + 1];
+        ranks = new int[n + 1];
+        ranks[0] = n;
+        build(sorted, 0, 1);
+    }
+
+    /**
+     * Fill the subtree rooted at slot k with an in order walk of sorted
+     *
+     * @return next index of sorted to place
+     */
+    private int build(int[] sorted, int i, int k) {
+        // Unsigned : 2k + 1 overflows int once n >= 2^30
+        if (Integer.compareUnsigned(k, n) <= 0) {
+            i = build(sorted, i, 2 * k);
+            tree[k] = sorted[i];
+            ranks[k] = i;
+            i++;
+            i = build(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * @return number of values in the index
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Find the slot of the first value >= target
+     *
+     * @return the slot, 0 if all values are smaller
+     */
+    private int lowerBoundSlot(int target) {
+        int k = 1;
+        int prefetched = 0;
+        while (Integer.compareUnsigned(k, n) <= 0) {
+            if (k <= prefetchLimit) {
+                prefetched += tree[k << PREFETCH_LEVELS];
+            }
+            k = 2 * k + (tree[k] < target ? 1 : 0);
+        }
+        // The walk went right (bit 1) after passing the answer, then left until
+        // falling off : strip the trailing 1 bits and the left turn before them.
+        // k may have overflowed into the sign bit, the shift reads it unsigned.
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return prefetched == PREFETCH_GUARD && k > n ? 0 : k;
+    }
+
+    /**
+     * Find the slot of the first value > target
+     *
+     * @return the slot, 0 if all values are smaller or equal
+     */
+    private int upperBoundSlot(int target) {
+        int k = 1;
+        int prefetched = 0;
+        while (Integer.compareUnsigned(k, n) <= 0) {
+            if (k <= prefetchLimit) {
+                prefetched += tree[k << PREFETCH_LEVELS];
+            }
+            k = 2 * k + (tree[k] <= target ? 1 : 0);
+        }
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return prefetched == PREFETCH_GUARD && k > n ? 0 : k;
+    }
+
+    /**
+     * Check if a value is present
+     *
+     * @param target to look for
+     * @return true if present
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public boolean contains(int target) {
+        int k = lowerBoundSlot(target);
+        return k != 0 && tree[k] == target;
+    }
+
+    /**
+     * Index in the sorted array of the first value >= target
+     *
+     * @param target to look for
+     * @return the index, n if all values are smaller
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int lowerBound(int target) {
+        return ranks[lowerBoundSlot(target)];
+    }
+
+    /**
+     * Index in the sorted array of the first value > target
+     *
+     * @param target to look for
+     * @return the index, n if all values are smaller or equal
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int upperBound(int target) {
+        return ranks[upperBoundSlot(target)];
+    }
+
+    /**
+     * Number of values smaller than target
+     *
+     * @param target to rank
+     * @return the rank of target
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int rank(int target) {
+        return lowerBound(target);
+    }
+
+    /**
+     * Index of a value in the sorted array, as ArrayUtils.binarySearch
+     *
+     * @param target to find
+     * @return index of the first occurrence of target if present, else -1
+     *
+     *         Time complexity : O(logn) Space complexity : O(1)
+     */
+    public int indexOf(int target) {
+        int k = lowerBoundSlot(target);
+        return k != 0 && tree[k] == target ? ranks[k] : -1;
+    }
+}
@@ -29,7 +29,7 @@ public class StringUtils {
      * 
      *         Time complexity : O(A + B) Space complexity : O(1)
      */
-    public boolean areAnagrams(String a, String b) {
+    public static boolean areAnagrams(String a, String b) {
         int[] charCountsInA = getCharCount(a);
         int[] charCountsInB = getCharCount(b);
         for (int i = 0; i < 26; i++) {
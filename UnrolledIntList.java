@@ -0,0 +1,498 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Unrolled linked list of ints
+ *
+ * Every node holds a chunk of up to chunkCapacity values in an int array, so
+ * a sequential scan touches one node per chunk and reads the values at array
+ * speed instead of taking a cache miss per element. Inserting into a full
+ * chunk splits it in two, and a chunk that drops below half full after a
+ * removal takes values from or merges with the next chunk, so chunks stay at
+ * least half full under inserts and removals.
+ *
+ * The operations mirror LinkedList. Not thread safe.
+ */
+public class UnrolledIntList {
+
+    static final int DEFAULT_CHUNK_CAPACITY = 64;
+
+    static final class Chunk {
+        final int[] vals;
+        int count;
+        Chunk next;
+
+        Chunk(int capacity) {
+            vals = new int[capacity];
+        }
+    }
+
+    private final int chunkCapacity;
+    private Chunk head;
+    private Chunk tail;
+    private int size;
+
+    public UnrolledIntList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * @param chunkCapacity max number of values in a chunk
+     */
+    public UnrolledIntList(int chunkCapacity) {
+        if (chunkCapacity < 2) {
+            throw new IllegalArgumentException("chunkCapacity : " + chunkCapacity);
+        }
+        this.chunkCapacity = chunkCapacity;
+    }
+
+    /**
+     * Build a list with full chunks
+     *
+     * @param nums values of the list
+     * @return the list
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static UnrolledIntList fromArray(int[] nums) {
+        UnrolledIntList list = new UnrolledIntList();
+        for (int num : nums) {
+            list.add(num);
+        }
+        return list;
+    }
+
+    /**
+     * Build a list with full chunks from the values of a linked list
+     *
+     * @param head of the linked list
+     * @return the list
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static UnrolledIntList fromList(LinkedList.ListNode head) {
+        UnrolledIntList list = new UnrolledIntList();
+        for (LinkedList.ListNode cur = head; cur != null; cur = cur.next) {
+            list.add(cur.val);
+        }
+        return list;
+    }
+
+    /**
+     * @return values of the list in order
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int[] toArray() {
+        int[] nums = new int[size];
+        int i = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            System.arraycopy(chunk.vals, 0, nums, i, chunk.count);
+            i += chunk.count;
+        }
+        return nums;
+    }
+
+    /**
+     * @return number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append a value, filling the last chunk before starting a new one
+     *
+     * @param val to append
+     *
+     *            Time complexity : O(1) Space complexity : O(1) amortized
+     */
+    public void add(int val) {
+        if (tail == null || tail.count == chunkCapacity) {
+            Chunk chunk = new Chunk(chunkCapacity);
+            if (tail == null) {
+                head = chunk;
+            } else {
+                tail.next = chunk;
+            }
+            tail = chunk;
+        }
+        tail.vals[tail.count++] = val;
+        size++;
+    }
+
+    /**
+     * Get the value at an index
+     *
+     * @param index 0 based
+     * @return the value
+     *
+     *         Time complexity : O(n / chunkCapacity) Space complexity : O(1)
+     */
+    public int get(int index) {
+        checkIndex(index, size);
+        Chunk chunk = head;
+        while (index >= chunk.count) {
+            index -= chunk.count;
+            chunk = chunk.next;
+        }
+        return chunk.vals[index];
+    }
+
+    /**
+     * Insert a value at an index, splitting its chunk if full
+     *
+     * @param index 0 based, size to append
+     * @param val   to insert
+     *
+     *              Time complexity : O(n / chunkCapacity + chunkCapacity) Space
+     *              complexity : O(chunkCapacity)
+     */
+    public void insert(int index, int val) {
+        checkIndex(index, size + 1);
+        if (index == size) {
+            add(val);
+            return;
+        }
+        Chunk chunk = head;
+        while (index > chunk.count || (index == chunk.count && chunk.count == chunkCapacity)) {
+            index -= chunk.count;
+            chunk = chunk.next;
+        }
+        if (chunk.count == chunkCapacity) {
+            // 1. Move the upper half into a new chunk
+            Chunk upper = new Chunk(chunkCapacity);
+            int half = chunkCapacity >>> 1;
+            upper.count = chunkCapacity - half;
+            System.arraycopy(chunk.vals, half, upper.vals, 0, upper.count);
+            chunk.count = half;
+            upper.next = chunk.next;
+            chunk.next = upper;
+            if (tail == chunk) {
+                tail = upper;
+            }
+            if (index > half) {
+                chunk = upper;
+                index -= half;
+            }
+        }
+        // 2. Shift the rest of the chunk to make room
+        System.arraycopy(chunk.vals, index, chunk.vals, index + 1, chunk.count - index);
+        chunk.vals[index] = val;
+        chunk.count++;
+        size++;
+    }
+
+    /**
+     * Remove the value at an index, refilling its chunk if less than half full
+     *
+     * @param index 0 based
+     * @return the removed value
+     *
+     *         Time complexity : O(n / chunkCapacity + chunkCapacity) Space
+     *         complexity : O(1)
+     */
+    public int removeAt(int index) {
+        checkIndex(index, size);
+        Chunk prev = null;
+        Chunk chunk = head;
+        while (index >= chunk.count) {
+            index -= chunk.count;
+            prev = chunk;
+            chunk = chunk.next;
+        }
+        int removed = chunk.vals[index];
+        System.arraycopy(chunk.vals, index + 1, chunk.vals, index, chunk.count - index - 1);
+        chunk.count--;
+        size--;
+
+        Chunk next = chunk.next;
+        if (chunk.count == 0) {
+            unlinkChunk(prev, chunk);
+        } else if (next != null && chunk.count < chunkCapacity >>> 1) {
+            if (chunk.count + next.count <= chunkCapacity) {
+                // Merge the next chunk into this one
+                System.arraycopy(next.vals, 0, chunk.vals, chunk.count, next.count);
+                chunk.count += next.count;
+                unlinkChunk(chunk, next);
+            } else {
+                // Take values from the next chunk so both are at least half full
+                int moved = (next.count - chunk.count) >>> 1;
+                System.arraycopy(next.vals, 0, chunk.vals, chunk.count, moved);
+                chunk.count += moved;
+                System.arraycopy(next.vals, moved, next.vals, 0, next.count - moved);
+                next.count -= moved;
+            }
+        }
+        return removed;
+    }
+
+    private void unlinkChunk(Chunk prev, Chunk chunk) {
+        if (prev == null) {
+            head = chunk.next;
+        } else {
+            prev.next = chunk.next;
+        }
+        if (tail == chunk) {
+            tail = prev;
+        }
+        chunk.next = null;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("index : " + index + ", bound : " + bound);
+        }
+    }
+
+    /**
+     * Reverse the list in place by reversing the chunk order and the values of
+     * each chunk
+     *
+     * Time complexity : O(n) Space complexity : O(1)
+     */
+    public void reverse() {
+        Chunk prev = null;
+        Chunk cur = head;
+        tail = head;
+        while (cur != null) {
+            int[] vals = cur.vals;
+            for (int i = 0, j = cur.count - 1; i < j; i++, j--) {
+                int tmp = vals[i];
+                vals[i] = vals[j];
+                vals[j] = tmp;
+            }
+            Chunk next = cur.next;
+            cur.next = prev;
+            prev = cur;
+            cur = next;
+        }
+        head = prev;
+    }
+
+    /**
+     * Split the list so that this list keeps its first k values
+     *
+     * @param k values to keep
+     * @return list of the remaining values
+     *
+     *         Time complexity : O(n / chunkCapacity + chunkCapacity) Space
+     *         complexity : O(chunkCapacity)
+     */
+    public UnrolledIntList splitList(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        UnrolledIntList rest = new UnrolledIntList(chunkCapacity);
+        if (k >= size) {
+            return rest;
+        }
+        rest.size = size - k;
+        size = k;
+        if (k == 0) {
+            rest.head = head;
+            rest.tail = tail;
+            head = null;
+            tail = null;
+            return rest;
+        }
+
+        Chunk chunk = head;
+        while (k > chunk.count) {
+            k -= chunk.count;
+            chunk = chunk.next;
+        }
+        rest.tail = tail;
+        if (k == chunk.count) {
+            rest.head = chunk.next;
+        } else {
+            // Split inside the chunk
+            Chunk upper = new Chunk(chunkCapacity);
+            upper.count = chunk.count - k;
+            System.arraycopy(chunk.vals, k, upper.vals, 0, upper.count);
+            chunk.count = k;
+            upper.next = chunk.next;
+            rest.head = upper;
+            if (rest.tail == chunk) {
+                rest.tail = upper;
+            }
+        }
+        chunk.next = null;
+        tail = chunk;
+        return rest;
+    }
+
+    /**
+     * Merge two sorted lists into a new list with full chunks, stable : equal
+     * values of l1 come first
+     *
+     * @param l1 first sorted list, unchanged
+     * @param l2 second sorted list, unchanged
+     * @return the merged list
+     *
+     *         Time complexity : O(n + m) Space complexity : O(n + m)
+     */
+    public static UnrolledIntList mergeTwoSortedLists(UnrolledIntList l1, UnrolledIntList l2) {
+        UnrolledIntList merged = new UnrolledIntList(l1.chunkCapacity);
+        Chunk c1 = l1.head;
+        Chunk c2 = l2.head;
+        int i = 0;
+        int j = 0;
+        while (c1 != null && c2 != null) {
+            if (c2.vals[j] < c1.vals[i]) {
+                merged.add(c2.vals[j]);
+                if (++j == c2.count) {
+                    c2 = c2.next;
+                    j = 0;
+                }
+            } else {
+                merged.add(c1.vals[i]);
+                if (++i == c1.count) {
+                    c1 = c1.next;
+                    i = 0;
+                }
+            }
+        }
+        merged.appendFrom(c1, i);
+        merged.appendFrom(c2, j);
+        return merged;
+    }
+
+    private void appendFrom(Chunk chunk, int from) {
+        for (; chunk != null; chunk = chunk.next, from = 0) {
+            for (int i = from; i < chunk.count; i++) {
+                add(chunk.vals[i]);
+            }
+        }
+    }
+
+    /**
+     * Remove all values which appear more than once in a sorted list, packing
+     * the remaining values into full chunks
+     *
+     * Time complexity : O(n) Space complexity : O(1)
+     */
+    public void removeDuplicatesFromList() {
+        // Values are read ahead of where they are written back, so the list can
+        // be compacted in place
+        Chunk writeChunk = head;
+        int writeIndex = 0;
+        int written = 0;
+        int runVal = 0;
+        int runLength = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.count; i++) {
+                int val = chunk.vals[i];
+                if (runLength > 0 && val == runVal) {
+                    runLength++;
+                    continue;
+                }
+                if (runLength == 1) {
+                    if (writeIndex == chunkCapacity) {
+                        writeChunk.count = writeIndex;
+                        writeChunk = writeChunk.next;
+                        writeIndex = 0;
+                    }
+                    writeChunk.vals[writeIndex++] = runVal;
+                    written++;
+                }
+                runVal = val;
+                runLength = 1;
+            }
+        }
+        if (runLength == 1) {
+            if (writeIndex == chunkCapacity) {
+                writeChunk.count = writeIndex;
+                writeChunk = writeChunk.next;
+                writeIndex = 0;
+            }
+            writeChunk.vals[writeIndex++] = runVal;
+            written++;
+        }
+        truncate(writeChunk, writeIndex, written);
+    }
+
+    /**
+     * Drop everything after the given position of the list
+     */
+    private void truncate(Chunk last, int lastCount, int newSize) {
+        size = newSize;
+        if (newSize == 0) {
+            head = null;
+            tail = null;
+            return;
+        }
+        last.count = lastCount;
+        last.next = null;
+        tail = last;
+    }
+
+    /**
+     * Sort the list in place, keeping the chunk layout
+     *
+     * The values are sorted as one array and written back, which beats any
+     * node based sort since the chunks are arrays already.
+     *
+     * Time complexity : O(nlogn) Space complexity : O(n)
+     */
+    public void sort() {
+        int[] nums = toArray();
+        Arrays.sort(nums);
+        int i = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            System.arraycopy(nums, i, chunk.vals, 0, chunk.count);
+            i += chunk.count;
+        }
+    }
+
+    /**
+     * @return iterator over the values in order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Chunk chunk = head;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return chunk != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (chunk == null) {
+                    throw new NoSuchElementException();
+                }
+                int val = chunk.vals[index];
+                if (++index == chunk.count) {
+                    chunk = chunk.next;
+                    index = 0;
+                }
+                return val;
+            }
+        };
+    }
+
+    /**
+     * Sum of the values, a sequential scan over the chunk arrays
+     *
+     * @return sum of all values
+     *
+     *         Time complexity : O(n) Space complexity : O(1)
+     */
+    public long sum() {
+        long sum = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            int[] vals = chunk.vals;
+            for (int i = 0; i < chunk.count; i++) {
+                sum += vals[i];
+            }
+        }
+        return sum;
+    }
+}
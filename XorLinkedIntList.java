@@ -0,0 +1,448 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Doubly linked list of ints where each node stores prev XOR next
+ *
+ * Nodes are slots of two parallel int arrays, as in IntNodePool : vals[node]
+ * is the value and links[node] the XOR of the previous and next node ids, so
+ * bidirectional links cost one int per node instead of two references and a
+ * node object. Knowing two adjacent nodes is enough to walk in either
+ * direction : next = links[cur] ^ prev.
+ *
+ * Reversal is O(1) since swapping head and tail reverses the meaning of every
+ * link. In circular mode the head's prev is the tail and the tail's next the
+ * head, switching modes only touches those two links.
+ *
+ * Node ids start at 1 so that NIL can be 0, the identity of XOR. Not thread
+ * safe.
+ */
+public class XorLinkedIntList {
+
+    static final int NIL = 0;
+    static final int DEFAULT_CAPACITY = 16;
+
+    private int[] vals;
+    private int[] links;
+    // Slots [1, used) have been handed out at least once
+    private int used = 1;
+    // Freed slots chained through links
+    private int freeHead = NIL;
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+    private boolean circular;
+
+    public XorLinkedIntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of nodes that can be added without growing
+     */
+    public XorLinkedIntList(int capacity) {
+        if (capacity < 0 || capacity > Integer.MAX_VALUE - 9) {
+            throw new IllegalArgumentException("capacity : " + capacity);
+        }
+        vals = new int[capacity + 1];
+        links = new int[capacity + 1];
+    }
+
+    /**
+     * Build a list from an array
+     *
+     * @param nums values of the list
+     * @return the list
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static XorLinkedIntList fromArray(int[] nums) {
+        XorLinkedIntList list = new XorLinkedIntList(nums.length);
+        for (int num : nums) {
+            list.addLast(num);
+        }
+        return list;
+    }
+
+    /**
+     * Convert a singly linked list into a compact doubly linked list
+     *
+     * Java references cannot be XORed, so the values are moved into the pool
+     * in one pass and the ListNode chain can be dropped : the result costs 8
+     * bytes per node instead of a second node graph with prev and next
+     * references as built by LinkedList.convertSinglyToDoublyLinkedList.
+     *
+     * @param head     of the singly linked list
+     * @param circular true for a circular list
+     * @return the doubly linked list
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public static XorLinkedIntList fromList(LinkedList.ListNode head, boolean circular) {
+        XorLinkedIntList list = new XorLinkedIntList(LinkedList.getNumOfNodes(head));
+        for (LinkedList.ListNode cur = head; cur != null; cur = cur.next) {
+            list.addLast(cur.val);
+        }
+        list.setCircular(circular);
+        return list;
+    }
+
+    /**
+     * @return number of values in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isCircular() {
+        return circular;
+    }
+
+    /**
+     * Switch between linear and circular mode
+     *
+     * @param circular true to link the tail back to the head
+     *
+     *                 Time complexity : O(1) Space complexity : O(1)
+     */
+    public void setCircular(boolean circular) {
+        if (this.circular != circular && size > 0) {
+            // The outer neighbour of head and tail toggles between NIL and the
+            // other end
+            links[head] ^= tail;
+            links[tail] ^= head;
+        }
+        this.circular = circular;
+    }
+
+    /**
+     * Reverse the list
+     *
+     * Time complexity : O(1) Space complexity : O(1)
+     */
+    public void reverse() {
+        int tmp = head;
+        head = tail;
+        tail = tmp;
+    }
+
+    public int getFirst() {
+        checkNotEmpty();
+        return vals[head];
+    }
+
+    public int getLast() {
+        checkNotEmpty();
+        return vals[tail];
+    }
+
+    /**
+     * Append a value
+     *
+     * @param val to append
+     *
+     *            Time complexity : O(1) amortized Space complexity : O(1)
+     *            amortized
+     */
+    public void addLast(int val) {
+        int node = allocate(val);
+        if (size == 0) {
+            head = node;
+            tail = node;
+            links[node] = NIL;
+        } else {
+            int outer = circular ? head : NIL;
+            links[node] = tail ^ outer;
+            // The tail's next and the head's prev become the new node
+            links[tail] ^= outer ^ node;
+            if (circular) {
+                links[head] ^= tail ^ node;
+            }
+            tail = node;
+        }
+        size++;
+    }
+
+    /**
+     * Prepend a value
+     *
+     * @param val to prepend
+     *
+     *            Time complexity : O(1) amortized Space complexity : O(1)
+     *            amortized
+     */
+    public void addFirst(int val) {
+        // Prepending is appending to the reversed list
+        reverse();
+        addLast(val);
+        reverse();
+    }
+
+    /**
+     * Remove the last value
+     *
+     * @return the removed value
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public int removeLast() {
+        checkNotEmpty();
+        int node = tail;
+        int val = vals[node];
+        if (size == 1) {
+            head = NIL;
+            tail = NIL;
+        } else {
+            int outer = circular ? head : NIL;
+            int prev = links[node] ^ outer;
+            links[prev] ^= node ^ outer;
+            if (circular) {
+                links[head] ^= node ^ prev;
+            }
+            tail = prev;
+        }
+        free(node);
+        size--;
+        return val;
+    }
+
+    /**
+     * Remove the first value
+     *
+     * @return the removed value
+     *
+     *         Time complexity : O(1) Space complexity : O(1)
+     */
+    public int removeFirst() {
+        reverse();
+        try {
+            return removeLast();
+        } finally {
+            reverse();
+        }
+    }
+
+    /**
+     * Find the node at an index and its predecessor in forward order, walking
+     * from the nearer end
+     *
+     * @return [prev, node]
+     */
+    private int[] locate(int index) {
+        int prev;
+        int cur;
+        if (index < size >>> 1) {
+            prev = circular ? tail : NIL;
+            cur = head;
+            for (int i = 0; i < index; i++) {
+                int next = links[cur] ^ prev;
+                prev = cur;
+                cur = next;
+            }
+            return new int[] { prev, cur };
+        }
+        int next = circular ? head : NIL;
+        cur = tail;
+        for (int i = size - 1; i > index; i--) {
+            prev = links[cur] ^ next;
+            next = cur;
+            cur = prev;
+        }
+        return new int[] { links[cur] ^ next, cur };
+    }
+
+    /**
+     * Get the value at an index
+     *
+     * @param index 0 based
+     * @return the value
+     *
+     *         Time complexity : O(min(index, n - index)) Space complexity : O(1)
+     */
+    public int get(int index) {
+        checkIndex(index, size);
+        return vals[locate(index)[1]];
+    }
+
+    /**
+     * Insert a value at an index
+     *
+     * @param index 0 based, size to append
+     * @param val   to insert
+     *
+     *              Time complexity : O(min(index, n - index)) Space complexity :
+     *              O(1) amortized
+     */
+    public void insert(int index, int val) {
+        checkIndex(index, size + 1);
+        if (index == 0) {
+            addFirst(val);
+        } else if (index == size) {
+            addLast(val);
+        } else {
+            int[] found = locate(index);
+            int prev = found[0];
+            int next = found[1];
+            int node = allocate(val);
+            links[node] = prev ^ next;
+            links[prev] ^= next ^ node;
+            links[next] ^= prev ^ node;
+            size++;
+        }
+    }
+
+    /**
+     * Remove the value at an index
+     *
+     * @param index 0 based
+     * @return the removed value
+     *
+     *         Time complexity : O(min(index, n - index)) Space complexity : O(1)
+     */
+    public int removeAt(int index) {
+        checkIndex(index, size);
+        if (index == 0) {
+            return removeFirst();
+        }
+        if (index == size - 1) {
+            return removeLast();
+        }
+        int[] found = locate(index);
+        int prev = found[0];
+        int node = found[1];
+        int next = links[node] ^ prev;
+        links[prev] ^= node ^ next;
+        links[next] ^= node ^ prev;
+        int val = vals[node];
+        free(node);
+        size--;
+        return val;
+    }
+
+    /**
+     * Rotate the list so that the value at index k becomes the first
+     *
+     * @param k number of values moved from the front to the back
+     *
+     *          Time complexity : O(min(k, n - k)) Space complexity : O(1)
+     */
+    public void rotate(int k) {
+        if (size == 0) {
+            return;
+        }
+        k = Math.floorMod(k, size);
+        if (k == 0) {
+            return;
+        }
+        boolean wasCircular = circular;
+        setCircular(true);
+        int[] found = locate(k);
+        tail = found[0];
+        head = found[1];
+        setCircular(wasCircular);
+    }
+
+    /**
+     * @return values in order
+     *
+     *         Time complexity : O(n) Space complexity : O(n)
+     */
+    public int[] toArray() {
+        int[] nums = new int[size];
+        PrimitiveIterator.OfInt it = iterator();
+        for (int i = 0; i < size; i++) {
+            nums[i] = it.nextInt();
+        }
+        return nums;
+    }
+
+    /**
+     * @return iterator from head to tail
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new Walker(head, circular ? tail : NIL);
+    }
+
+    /**
+     * @return iterator from tail to head
+     */
+    public PrimitiveIterator.OfInt descendingIterator() {
+        return new Walker(tail, circular ? head : NIL);
+    }
+
+    /**
+     * Walks size nodes from a start node away from a given neighbour, which
+     * also stops circular lists after one lap
+     */
+    private class Walker implements PrimitiveIterator.OfInt {
+        private int prev;
+        private int cur;
+        private int remaining = size;
+
+        Walker(int start, int before) {
+            this.cur = start;
+            this.prev = before;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int val = vals[cur];
+            int next = links[cur] ^ prev;
+            prev = cur;
+            cur = next;
+            remaining--;
+            return val;
+        }
+    }
+
+    private int allocate(int val) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = links[node];
+        } else {
+            if (used == vals.length) {
+                if (used == Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("XorLinkedIntList is full");
+                }
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(DEFAULT_CAPACITY, 2L * used));
+                vals = Arrays.copyOf(vals, capacity);
+                links = Arrays.copyOf(links, capacity);
+            }
+            node = used++;
+        }
+        vals[node] = val;
+        return node;
+    }
+
+    private void free(int node) {
+        links[node] = freeHead;
+        freeHead = node;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("list is empty");
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("index : " + index + ", bound : " + bound);
+        }
+    }
+}